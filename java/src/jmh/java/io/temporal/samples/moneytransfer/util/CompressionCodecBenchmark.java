@@ -0,0 +1,87 @@
+package io.temporal.samples.moneytransfer.util;
+
+import io.temporal.api.common.v1.Payload;
+import io.temporal.common.converter.DefaultDataConverter;
+import io.temporal.samples.moneytransfer.model.DepositResponse;
+import io.temporal.samples.moneytransfer.model.TransferInput;
+import io.temporal.samples.moneytransfer.model.TransferStatus;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Payloads/sec through {@link CompressionCodec} on payloads produced by the default data converter. The compression
+ * ratio of each payload is printed once per trial.
+ *
+ * <pre>./gradlew jmh -PjmhIncludes=CompressionCodecBenchmark</pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CompressionCodecBenchmark {
+
+    @Param({ "TransferInput", "TransferStatus", "DepositResponse", "TransferInputBatch" })
+    public String payloadType;
+
+    private CompressionCodec codec;
+    private List<Payload> plain;
+    private List<Payload> compressed;
+
+    @Setup
+    public void setUp() {
+        Payload payload = DefaultDataConverter.newDefaultInstance().toPayload(value()).orElseThrow();
+
+        // threshold 0 so the small payloads are measured too, the default threshold would pass them through
+        codec = new CompressionCodec(0);
+        plain = Collections.singletonList(payload);
+        compressed = codec.encode(plain);
+
+        int before = payload.getSerializedSize();
+        int after = compressed.get(0).getSerializedSize();
+        System.out.printf("%n%s: %d -> %d bytes, ratio %.2f%n", payloadType, before, after, (double) after / before);
+    }
+
+    @Benchmark
+    public List<Payload> encode() {
+        return codec.encode(plain);
+    }
+
+    @Benchmark
+    public List<Payload> decode() {
+        return codec.decode(compressed);
+    }
+
+    private Object value() {
+        switch (payloadType) {
+            case "TransferInput":
+                return new TransferInput(100, "account1", "account2");
+            case "TransferStatus":
+                return new TransferStatus(75, "running", "", new DepositResponse("example-transfer-id"), 30);
+            case "DepositResponse":
+                return new DepositResponse("example-transfer-id");
+            case "TransferInputBatch":
+                List<TransferInput> batch = new ArrayList<>();
+                for (int i = 0; i < 500; i++) {
+                    batch.add(new TransferInput(100 + i, "account" + i, "account" + (i + 1)));
+                }
+                return batch;
+            default:
+                throw new IllegalArgumentException("Unknown payload type: " + payloadType);
+        }
+    }
+}
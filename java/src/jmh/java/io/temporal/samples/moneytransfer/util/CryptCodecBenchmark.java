@@ -0,0 +1,113 @@
+package io.temporal.samples.moneytransfer.util;
+
+import com.google.protobuf.ByteString;
+import io.temporal.api.common.v1.Payload;
+import io.temporal.common.converter.EncodingKeys;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Payloads/sec and bytes allocated per payload through {@link CryptCodec}. The {@code uncached} benchmarks repeat the
+ * original per-payload path (new Cipher, SecretKeySpec and SecureRandom, byte array copies) so both numbers come from
+ * the same run. Allocation is reported by the gc profiler as {@code gc.alloc.rate.norm}. The {@code batch} benchmark
+ * decodes 256 payloads in one call, the cost per payload once the per-call overhead is spread out.
+ *
+ * <pre>./gradlew jmh -PjmhIncludes=CryptCodecBenchmark</pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CryptCodecBenchmark {
+
+    private static final String CIPHER = "AES/GCM/NoPadding";
+    private static final String KEY = "sa-rocks!sa-rocks!sa-rocks!yeah!";
+
+    @Param({ "256", "4096", "65536" })
+    public int payloadSize;
+
+    private static final int BATCH_SIZE = 256;
+
+    private CryptCodec codec;
+    private List<Payload> plain;
+    private List<Payload> encrypted;
+    private List<Payload> encryptedBatch;
+
+    @Setup
+    public void setUp() {
+        byte[] data = new byte[payloadSize];
+        new Random(42).nextBytes(data);
+        Payload payload = Payload.newBuilder()
+            .putMetadata(EncodingKeys.METADATA_ENCODING_KEY, ByteString.copyFromUtf8("json/plain"))
+            .setData(ByteString.copyFrom(data))
+            .build();
+
+        codec = new CryptCodec();
+        plain = Collections.singletonList(payload);
+        encrypted = codec.encode(plain);
+        encryptedBatch = codec.encode(Collections.nCopies(BATCH_SIZE, payload));
+    }
+
+    @Benchmark
+    public List<Payload> encode() {
+        return codec.encode(plain);
+    }
+
+    @Benchmark
+    public List<Payload> decode() {
+        return codec.decode(encrypted);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public List<Payload> decodeBatch() {
+        return codec.decode(encryptedBatch);
+    }
+
+    @Benchmark
+    public byte[] encodeUncached() throws Exception {
+        byte[] nonce = new byte[12];
+        new SecureRandom().nextBytes(nonce);
+        SecretKey key = new SecretKeySpec(KEY.getBytes(StandardCharsets.UTF_8), "AES");
+        Cipher cipher = Cipher.getInstance(CIPHER);
+        cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(128, nonce));
+        byte[] encryptedData = cipher.doFinal(plain.get(0).toByteArray());
+        return ByteBuffer.allocate(nonce.length + encryptedData.length).put(nonce).put(encryptedData).array();
+    }
+
+    @Benchmark
+    public byte[] decodeUncached() throws Exception {
+        ByteBuffer buffer = ByteBuffer.wrap(encrypted.get(0).getData().toByteArray());
+        byte[] nonce = new byte[12];
+        buffer.get(nonce);
+        byte[] encryptedData = new byte[buffer.remaining()];
+        buffer.get(encryptedData);
+        SecretKey key = new SecretKeySpec(KEY.getBytes(StandardCharsets.UTF_8), "AES");
+        Cipher cipher = Cipher.getInstance(CIPHER);
+        cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(128, nonce));
+        return cipher.doFinal(encryptedData);
+    }
+}
@@ -0,0 +1,74 @@
+package io.temporal.samples.moneytransfer.util;
+
+import io.temporal.api.common.v1.Payload;
+import io.temporal.common.converter.DataConverter;
+import io.temporal.common.converter.DefaultDataConverter;
+import io.temporal.samples.moneytransfer.model.DepositResponse;
+import io.temporal.samples.moneytransfer.model.TransferInput;
+import io.temporal.samples.moneytransfer.model.TransferStatus;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Values/sec through the default data converter's Jackson serialization, for the types the workflows exchange most:
+ * every transfer's input, every status query and every deposit result.
+ *
+ * <pre>./gradlew jmh -PjmhIncludes=DataConverterBenchmark</pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DataConverterBenchmark {
+
+    @Param({ "TransferInput", "TransferStatus", "DepositResponse" })
+    public String payloadType;
+
+    private DataConverter converter;
+    private Object value;
+    private Class<?> valueType;
+    private Payload payload;
+
+    @Setup
+    public void setUp() {
+        converter = DefaultDataConverter.newDefaultInstance();
+        switch (payloadType) {
+            case "TransferInput":
+                value = new TransferInput(100, "account1", "account2");
+                break;
+            case "TransferStatus":
+                value = new TransferStatus(75, "running", "", new DepositResponse("example-transfer-id"), 30);
+                break;
+            case "DepositResponse":
+                value = new DepositResponse("example-transfer-id");
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown payload type: " + payloadType);
+        }
+        valueType = value.getClass();
+        payload = converter.toPayload(value).orElseThrow();
+    }
+
+    @Benchmark
+    public Optional<Payload> serialize() {
+        return converter.toPayload(value);
+    }
+
+    @Benchmark
+    public Object deserialize() {
+        return converter.fromPayload(payload, valueType, valueType);
+    }
+}
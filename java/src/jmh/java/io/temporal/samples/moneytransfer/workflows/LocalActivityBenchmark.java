@@ -0,0 +1,118 @@
+package io.temporal.samples.moneytransfer.workflows;
+
+import io.temporal.client.WorkflowClient;
+import io.temporal.client.WorkflowOptions;
+import io.temporal.samples.moneytransfer.activities.AccountTransferActivities;
+import io.temporal.samples.moneytransfer.model.DepositResponse;
+import io.temporal.samples.moneytransfer.model.TransferInput;
+import io.temporal.samples.moneytransfer.model.TransferOutput;
+import io.temporal.testing.TestWorkflowEnvironment;
+import io.temporal.worker.Worker;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * End-to-end latency of one transfer on the in-memory test server, with validate as a normal or a local activity. The
+ * activities return immediately and the progress sleeps are skipped, so the numbers are the orchestration cost alone.
+ * The history length of each mode is printed once per trial.
+ *
+ * <pre>./gradlew jmh -PjmhIncludes=LocalActivityBenchmark</pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LocalActivityBenchmark {
+
+    private static final String TASK_QUEUE = "LocalActivityBenchmark";
+
+    @Param({ "false", "true" })
+    public boolean localActivities;
+
+    private TestWorkflowEnvironment testEnv;
+    private WorkflowClient client;
+
+    @Setup
+    public void setUp() {
+        testEnv = TestWorkflowEnvironment.newInstance();
+        Worker worker = testEnv.newWorker(TASK_QUEUE);
+        worker.registerWorkflowImplementationTypes(AccountTransferWorkflowImpl.class);
+        worker.registerActivitiesImplementations(new InstantActivities());
+        testEnv.start();
+        client = testEnv.getWorkflowClient();
+
+        String workflowId = transferWorkflowId();
+        int events = client.fetchHistory(workflowId).getHistory().getEventsCount();
+        System.out.printf("%nlocalActivities=%s: %d history events per transfer%n", localActivities, events);
+    }
+
+    @TearDown
+    public void tearDown() {
+        testEnv.close();
+    }
+
+    @Benchmark
+    public TransferOutput transfer() {
+        return newWorkflow(UUID.randomUUID().toString()).transfer(newInput());
+    }
+
+    private String transferWorkflowId() {
+        String workflowId = UUID.randomUUID().toString();
+        newWorkflow(workflowId).transfer(newInput());
+        return workflowId;
+    }
+
+    private TransferInput newInput() {
+        return new TransferInput(100, "account1", "account2", null, localActivities);
+    }
+
+    private AccountTransferWorkflow newWorkflow(String workflowId) {
+        return client.newWorkflowStub(
+            AccountTransferWorkflow.class,
+            WorkflowOptions.newBuilder().setTaskQueue(TASK_QUEUE).setWorkflowId(workflowId).build()
+        );
+    }
+
+    // no simulated latency, so only the Temporal round-trips are measured
+    public static class InstantActivities implements AccountTransferActivities {
+
+        @Override
+        public String validate(TransferInput input) {
+            return "SUCCESS";
+        }
+
+        @Override
+        public String withdraw(String idempotencyKey, float amount, String type) {
+            return "SUCCESS";
+        }
+
+        @Override
+        public DepositResponse deposit(String idempotencyKey, float amount, String type) {
+            return new DepositResponse("example-transfer-id");
+        }
+
+        @Override
+        public String sendNotification(TransferInput input) {
+            return "SUCCESS";
+        }
+
+        @Override
+        public boolean undoWithdraw(float amount) {
+            return true;
+        }
+    }
+}
@@ -1,26 +1,151 @@
 package io.temporal.samples.moneytransfer;
 
+import io.temporal.client.WorkflowClient;
+import io.temporal.common.interceptors.WorkerInterceptor;
+import io.temporal.opentracing.OpenTracingWorkerInterceptor;
+import io.temporal.samples.moneytransfer.activities.AccountTransferActivities;
+import io.temporal.samples.moneytransfer.activities.AccountTransferActivitiesAsyncImpl;
 import io.temporal.samples.moneytransfer.activities.AccountTransferActivitiesImpl;
+import io.temporal.samples.moneytransfer.activities.BatchTransferActivitiesImpl;
+import io.temporal.samples.moneytransfer.activities.SimulatedBank;
+import io.temporal.samples.moneytransfer.util.ActivityMetricsInterceptor;
 import io.temporal.samples.moneytransfer.util.ServerInfo;
+import io.temporal.samples.moneytransfer.util.TimerTracingInterceptor;
+import io.temporal.samples.moneytransfer.util.Tracing;
+import io.temporal.samples.moneytransfer.util.WorkerMetrics;
 import io.temporal.samples.moneytransfer.workflows.AccountTransferWorkflowImpl;
 import io.temporal.samples.moneytransfer.workflows.AccountTransferWorkflowScenarios;
+import io.temporal.samples.moneytransfer.workflows.BatchTransferWorkflowImpl;
 import io.temporal.worker.Worker;
 import io.temporal.worker.WorkerFactory;
+import io.temporal.worker.WorkerFactoryOptions;
+import io.temporal.worker.WorkerOptions;
+import io.temporal.worker.tuning.ResourceBasedControllerOptions;
+import io.temporal.worker.tuning.ResourceBasedTuner;
 
 public class AccountTransferWorker {
 
+    // with virtual threads a blocked activity no longer holds an OS thread, so allow many more of them at once
+    private static final int VIRTUAL_THREADS_MAX_CONCURRENT_ACTIVITIES = 5000;
+
     @SuppressWarnings("CatchAndPrintStackTrace")
     public static void main(String[] args) throws Exception {
         final String TASK_QUEUE = ServerInfo.getTaskqueue();
 
-        WorkerFactory factory = WorkerFactory.newInstance(TemporalClient.get());
+        WorkflowClient client = TemporalClient.get();
+        WorkerFactory factory = WorkerFactory.newInstance(client, getWorkerFactoryOptions());
 
-        Worker worker = factory.newWorker(TASK_QUEUE);
-        worker.registerWorkflowImplementationTypes(AccountTransferWorkflowImpl.class);
-        worker.registerWorkflowImplementationTypes(AccountTransferWorkflowScenarios.class);
-        worker.registerActivitiesImplementations(new AccountTransferActivitiesImpl());
+        Worker worker = factory.newWorker(TASK_QUEUE, getWorkerOptions());
+        register(worker, client);
 
         factory.start();
         System.out.println("Worker started for task queue: " + TASK_QUEUE);
+
+        if (ServerInfo.getMetricsPort() > 0) {
+            WorkerMetrics.start(ServerInfo.getMetricsPort());
+            System.out.println("Metrics available at http://localhost:" + ServerInfo.getMetricsPort() + "/metrics");
+        }
+    }
+
+    public static void register(Worker worker, WorkflowClient client) {
+        worker.registerWorkflowImplementationTypes(AccountTransferWorkflowImpl.class);
+        worker.registerWorkflowImplementationTypes(AccountTransferWorkflowScenarios.class);
+        worker.registerWorkflowImplementationTypes(BatchTransferWorkflowImpl.class);
+        worker.registerActivitiesImplementations(newActivities(client), new BatchTransferActivitiesImpl());
+    }
+
+    public static AccountTransferActivities newActivities(WorkflowClient client) {
+        if (ServerInfo.isAsyncBank()) {
+            return new AccountTransferActivitiesAsyncImpl(new SimulatedBank(client.newActivityCompletionClient()));
+        }
+        return new AccountTransferActivitiesImpl();
+    }
+
+    public static WorkerFactoryOptions getWorkerFactoryOptions() {
+        WorkerFactoryOptions.Builder builder = WorkerFactoryOptions.newBuilder();
+
+        WorkerInterceptor activityMetrics = new ActivityMetricsInterceptor(WorkerMetrics.getRegistry());
+        if (Tracing.isEnabled()) {
+            // spans for the workflow run, each activity's scheduling and execution, and the timers in between
+            builder.setWorkerInterceptors(
+                    activityMetrics,
+                    new OpenTracingWorkerInterceptor(Tracing.getOptions()),
+                    new TimerTracingInterceptor(Tracing.getTracer())
+            );
+        } else {
+            builder.setWorkerInterceptors(activityMetrics);
+        }
+
+        if (ServerInfo.getStickyCacheSize() > 0) {
+            builder.setWorkflowCacheSize(ServerInfo.getStickyCacheSize());
+        }
+        if (ServerInfo.getMaxWorkflowThreads() > 0) {
+            builder.setMaxWorkflowThreadCount(ServerInfo.getMaxWorkflowThreads());
+        }
+        if (isVirtualThreads()) {
+            builder.setUsingVirtualWorkflowThreads(true);
+        }
+
+        return builder.build();
+    }
+
+    public static WorkerOptions getWorkerOptions() {
+        WorkerOptions.Builder builder = WorkerOptions.newBuilder();
+
+        // the resource based tuner owns the slot counts, the SDK rejects fixed sizes alongside it
+        if (ServerInfo.isResourceBasedTuner()) {
+            builder.setWorkerTuner(
+                    ResourceBasedTuner.newBuilder()
+                            .setControllerOptions(
+                                    ResourceBasedControllerOptions.newBuilder(
+                                            ServerInfo.getTargetMemoryUsage(),
+                                            ServerInfo.getTargetCpuUsage()
+                                    ).build()
+                            )
+                            .build()
+            );
+        } else {
+            if (ServerInfo.getMaxConcurrentActivities() > 0) {
+                builder.setMaxConcurrentActivityExecutionSize(ServerInfo.getMaxConcurrentActivities());
+            } else if (isVirtualThreads()) {
+                builder.setMaxConcurrentActivityExecutionSize(VIRTUAL_THREADS_MAX_CONCURRENT_ACTIVITIES);
+            }
+            if (ServerInfo.getMaxConcurrentLocalActivities() > 0) {
+                builder.setMaxConcurrentLocalActivityExecutionSize(ServerInfo.getMaxConcurrentLocalActivities());
+            }
+            if (ServerInfo.getMaxConcurrentWorkflowTasks() > 0) {
+                builder.setMaxConcurrentWorkflowTaskExecutionSize(ServerInfo.getMaxConcurrentWorkflowTasks());
+            }
+        }
+
+        if (isVirtualThreads()) {
+            builder.setUsingVirtualThreads(true);
+        }
+        if (ServerInfo.getActivityPollers() > 0) {
+            builder.setMaxConcurrentActivityTaskPollers(ServerInfo.getActivityPollers());
+        }
+        if (ServerInfo.getWorkflowPollers() > 0) {
+            builder.setMaxConcurrentWorkflowTaskPollers(ServerInfo.getWorkflowPollers());
+        }
+        if (ServerInfo.getWorkerActivitiesPerSecond() > 0) {
+            builder.setMaxWorkerActivitiesPerSecond(ServerInfo.getWorkerActivitiesPerSecond());
+        }
+        if (ServerInfo.getTaskQueueActivitiesPerSecond() > 0) {
+            builder.setMaxTaskQueueActivitiesPerSecond(ServerInfo.getTaskQueueActivitiesPerSecond());
+        }
+
+        return builder.build();
+    }
+
+    private static boolean isVirtualThreads() {
+        if (!ServerInfo.isVirtualThreads()) {
+            return false;
+        }
+        if (Runtime.version().feature() < 21) {
+            throw new IllegalStateException(
+                    "TEMPORAL_WORKER_VIRTUAL_THREADS requires Java 21 or later, running on " + Runtime.version()
+            );
+        }
+        return true;
     }
 }
@@ -5,9 +5,16 @@ import io.temporal.client.WorkflowClientOptions;
 import io.temporal.client.schedules.ScheduleClient;
 import io.temporal.client.schedules.ScheduleClientOptions;
 import io.temporal.common.converter.CodecDataConverter;
+import io.temporal.common.converter.DataConverter;
 import io.temporal.common.converter.DefaultDataConverter;
+import io.temporal.opentracing.OpenTracingClientInterceptor;
+import io.temporal.payload.codec.PayloadCodec;
+import io.temporal.samples.moneytransfer.util.CompressionCodec;
 import io.temporal.samples.moneytransfer.util.CryptCodec;
+import io.temporal.samples.moneytransfer.util.MeteredCodec;
 import io.temporal.samples.moneytransfer.util.ServerInfo;
+import io.temporal.samples.moneytransfer.util.Tracing;
+import io.temporal.samples.moneytransfer.util.WorkerMetrics;
 import io.temporal.serviceclient.SimpleSslContextBuilder;
 import io.temporal.serviceclient.WorkflowServiceStubs;
 import io.temporal.serviceclient.WorkflowServiceStubsOptions;
@@ -16,13 +23,17 @@ import javax.net.ssl.SSLException;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.InputStream;
-import java.util.Collections;
+import java.util.ArrayList;
+import java.util.List;
 
 public class TemporalClient {
 
+    // built once, so every client and schedule client shares the same codecs and their meters
+    private static final DataConverter DATA_CONVERTER = createDataConverter();
+
     public static WorkflowServiceStubs getWorkflowServiceStubs() throws FileNotFoundException, SSLException {
         WorkflowServiceStubsOptions.Builder workflowServiceStubsOptionsBuilder =
-                WorkflowServiceStubsOptions.newBuilder();
+                WorkflowServiceStubsOptions.newBuilder().setMetricsScope(WorkerMetrics.getScope());
 
         // Preference is to use an API Key
         if (!ServerInfo.getApiKey().isEmpty()) {
@@ -44,31 +55,21 @@ public class TemporalClient {
 
         String targetEndpoint = ServerInfo.getAddress();
         workflowServiceStubsOptionsBuilder.setTarget(targetEndpoint);
-        WorkflowServiceStubs service = null;
-
-        if (!ServerInfo.getAddress().equals("localhost:7233")) {
-            // if not local server, then use the workflowServiceStubsOptionsBuilder
-            service = WorkflowServiceStubs.newServiceStubs(workflowServiceStubsOptionsBuilder.build());
-        } else {
-            service = WorkflowServiceStubs.newLocalServiceStubs();
-        }
 
-        return service;
+        // the local server gets the same options, so its SDK metrics are reported too
+        return WorkflowServiceStubs.newServiceStubs(workflowServiceStubsOptionsBuilder.build());
     }
 
     public static WorkflowClient get() throws FileNotFoundException, SSLException {
         WorkflowServiceStubs service = getWorkflowServiceStubs();
         WorkflowClientOptions.Builder builder = WorkflowClientOptions.newBuilder();
 
-        // if environment variable ENCRYPT_PAYLOADS is set to true, then use CryptCodec
-        if (System.getenv("ENCRYPT_PAYLOADS") != null && System.getenv("ENCRYPT_PAYLOADS").equals("true")) {
-            builder.setDataConverter(
-                    new CodecDataConverter(
-                            DefaultDataConverter.newDefaultInstance(),
-                            Collections.singletonList(new CryptCodec()),
-                            true/* encode failure attributes */
-                    )
-            );
+        DataConverter dataConverter = getDataConverter();
+        if (dataConverter != null) {
+            builder.setDataConverter(dataConverter);
+        }
+        if (Tracing.isEnabled()) {
+            builder.setInterceptors(new OpenTracingClientInterceptor(Tracing.getOptions()));
         }
 
         System.out.println("<<<<SERVER INFO>>>>:\n " + ServerInfo.getServerInfo());
@@ -83,15 +84,9 @@ public class TemporalClient {
         WorkflowServiceStubs service = getWorkflowServiceStubs();
         ScheduleClientOptions.Builder builder = ScheduleClientOptions.newBuilder();
 
-        // if environment variable ENCRYPT_PAYLOADS is set to true, then use CryptCodec
-        if (System.getenv("ENCRYPT_PAYLOADS") != null && System.getenv("ENCRYPT_PAYLOADS").equals("true")) {
-            builder.setDataConverter(
-                    new CodecDataConverter(
-                            DefaultDataConverter.newDefaultInstance(),
-                            Collections.singletonList(new CryptCodec()),
-                            true/* encode failure attributes */
-                    )
-            );
+        DataConverter dataConverter = getDataConverter();
+        if (dataConverter != null) {
+            builder.setDataConverter(dataConverter);
         }
 
         System.out.println("<<<<SERVER INFO>>>>:\n " + ServerInfo.getServerInfo());
@@ -100,4 +95,40 @@ public class TemporalClient {
         ScheduleClient client = ScheduleClient.newInstance(service, clientOptions);
         return client;
     }
+
+    public static DataConverter getDataConverter() {
+        return DATA_CONVERTER;
+    }
+
+    private static DataConverter createDataConverter() {
+        List<PayloadCodec> codecs = new ArrayList<>();
+
+        // if environment variable ENCRYPT_PAYLOADS is set to true, then use CryptCodec
+        if (System.getenv("ENCRYPT_PAYLOADS") != null && System.getenv("ENCRYPT_PAYLOADS").equals("true")) {
+            codecs.add(new MeteredCodec(
+                    new CryptCodec(),
+                    "crypt",
+                    WorkerMetrics.getRegistry()
+            ));
+        }
+
+        // if environment variable COMPRESS_PAYLOADS is set to true, then use CompressionCodec
+        // codecs encode last to first, so payloads are compressed before they are encrypted
+        if (System.getenv("COMPRESS_PAYLOADS") != null && System.getenv("COMPRESS_PAYLOADS").equals("true")) {
+            codecs.add(new MeteredCodec(
+                    new CompressionCodec(ServerInfo.getCompressionThreshold()),
+                    "compression",
+                    WorkerMetrics.getRegistry()
+            ));
+        }
+
+        if (codecs.isEmpty()) {
+            return null;
+        }
+        return new CodecDataConverter(
+                DefaultDataConverter.newDefaultInstance(),
+                codecs,
+                true/* encode failure attributes */
+        );
+    }
 }
@@ -3,6 +3,7 @@ package io.temporal.samples.moneytransfer.activities;
 import io.temporal.activity.ActivityInterface;
 import io.temporal.activity.ActivityMethod;
 import io.temporal.activity.ActivityOptions;
+import io.temporal.activity.LocalActivityOptions;
 import io.temporal.common.RetryOptions;
 import io.temporal.samples.moneytransfer.model.DepositResponse;
 import io.temporal.samples.moneytransfer.model.TransferInput;
@@ -22,6 +23,18 @@ public interface AccountTransferActivities {
             )
             .build();
 
+    // for short, idempotent steps run in the workflow worker without a round-trip through the task queue
+    LocalActivityOptions localActivityOptions = LocalActivityOptions.newBuilder()
+            .setStartToCloseTimeout(Duration.ofSeconds(5))
+            .setRetryOptions(
+                    RetryOptions.newBuilder()
+                            .setInitialInterval(Duration.ofSeconds(1))
+                            .setBackoffCoefficient(2)
+                            .setMaximumInterval(Duration.ofSeconds(30))
+                            .build()
+            )
+            .build();
+
     @ActivityMethod
     String validate(TransferInput input);
 
@@ -0,0 +1,44 @@
+package io.temporal.samples.moneytransfer.activities;
+
+import io.temporal.activity.Activity;
+import io.temporal.activity.ActivityExecutionContext;
+import io.temporal.samples.moneytransfer.model.DepositResponse;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Hands withdraw and deposit to the {@link SimulatedBank} and returns straight away. The activities complete when the
+ * bank calls back, so throughput is bounded by the bank rather than by the worker's activity slots.
+ */
+@Slf4j
+public class AccountTransferActivitiesAsyncImpl extends AccountTransferActivitiesImpl {
+
+    private final SimulatedBank bank;
+
+    public AccountTransferActivitiesAsyncImpl(SimulatedBank bank) {
+        this.bank = bank;
+    }
+
+    @Override
+    public String withdraw(String idempotencyKey, float amount, String type) {
+        log.info("Withdraw activity started, amount = {}", amount);
+        ActivityExecutionContext context = Activity.getExecutionContext();
+
+        context.doNotCompleteOnReturn();
+        bank.withdraw(context.getTaskToken(), amount, type, context.getInfo().getAttempt());
+
+        // ignored, the bank callback supplies the result
+        return null;
+    }
+
+    @Override
+    public DepositResponse deposit(String idempotencyKey, float amount, String type) {
+        log.info("Deposit activity started, amount = {}", amount);
+        ActivityExecutionContext context = Activity.getExecutionContext();
+
+        context.doNotCompleteOnReturn();
+        bank.deposit(context.getTaskToken(), amount, type, context.getInfo().getAttempt());
+
+        // ignored, the bank callback supplies the result
+        return null;
+    }
+}
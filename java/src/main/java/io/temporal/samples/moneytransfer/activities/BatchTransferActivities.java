@@ -0,0 +1,35 @@
+package io.temporal.samples.moneytransfer.activities;
+
+import io.temporal.activity.ActivityInterface;
+import io.temporal.activity.ActivityMethod;
+import io.temporal.activity.ActivityOptions;
+import io.temporal.common.RetryOptions;
+import io.temporal.samples.moneytransfer.model.BatchEntry;
+import io.temporal.samples.moneytransfer.model.BatchEntryResult;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Withdraw and deposit for many transfers in one bank call. Results come back in the order of the entries, one per
+ * entry, so a bad entry fails on its own instead of failing the whole call.
+ */
+@ActivityInterface
+public interface BatchTransferActivities {
+    ActivityOptions activityOptions = ActivityOptions.newBuilder()
+            .setStartToCloseTimeout(Duration.ofSeconds(30))
+            .setRetryOptions(
+                    RetryOptions.newBuilder()
+                            .setInitialInterval(Duration.ofSeconds(1))
+                            .setBackoffCoefficient(2)
+                            .setMaximumInterval(Duration.ofSeconds(30))
+                            .build()
+            )
+            .build();
+
+    @ActivityMethod
+    List<BatchEntryResult> withdrawBatch(List<BatchEntry> entries);
+
+    @ActivityMethod
+    List<BatchEntryResult> depositBatch(List<BatchEntry> entries);
+}
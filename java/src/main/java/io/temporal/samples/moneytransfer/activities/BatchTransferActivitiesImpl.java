@@ -0,0 +1,53 @@
+package io.temporal.samples.moneytransfer.activities;
+
+import io.temporal.samples.moneytransfer.model.BatchEntry;
+import io.temporal.samples.moneytransfer.model.BatchEntryResult;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@Slf4j
+public class BatchTransferActivitiesImpl implements BatchTransferActivities {
+
+    private static void simulateExternalOperation(long ms) {
+        try {
+            TimeUnit.MILLISECONDS.sleep(ms);
+        } catch (InterruptedException e) {
+            e.printStackTrace();
+        }
+    }
+
+    @Override
+    public List<BatchEntryResult> withdrawBatch(List<BatchEntry> entries) {
+        log.info("Withdraw batch activity started, entries = {}", entries.size());
+
+        // simulate one external API call for the whole batch
+        simulateExternalOperation(1000);
+
+        List<BatchEntryResult> results = new ArrayList<>(entries.size());
+        for (BatchEntry entry : entries) {
+            if (entry.getAmount() <= 0) {
+                results.add(new BatchEntryResult(entry.getIdempotencyKey(), false, null, "InvalidAmount"));
+            } else {
+                results.add(new BatchEntryResult(entry.getIdempotencyKey(), true, null, null));
+            }
+        }
+        return results;
+    }
+
+    @Override
+    public List<BatchEntryResult> depositBatch(List<BatchEntry> entries) {
+        log.info("Deposit batch activity started, entries = {}", entries.size());
+
+        // simulate one external API call for the whole batch
+        simulateExternalOperation(1000);
+
+        List<BatchEntryResult> results = new ArrayList<>(entries.size());
+        for (BatchEntry entry : entries) {
+            results.add(new BatchEntryResult(entry.getIdempotencyKey(), true, "example-transfer-id", null));
+        }
+        return results;
+    }
+}
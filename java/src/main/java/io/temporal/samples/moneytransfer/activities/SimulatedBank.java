@@ -0,0 +1,88 @@
+package io.temporal.samples.moneytransfer.activities;
+
+import io.temporal.client.ActivityCompletionClient;
+import io.temporal.failure.ApplicationFailure;
+import io.temporal.samples.moneytransfer.model.DepositResponse;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-process stand-in for a bank that answers withdraw and deposit requests with a callback some time later. Each
+ * request carries the task token of the activity that made it, and the callback completes that activity through the
+ * {@link ActivityCompletionClient}, so no worker slot is held while the bank is working.
+ */
+@Slf4j
+public class SimulatedBank {
+
+    private static final String API_DOWNTIME = "AccountTransferWorkflowAPIDowntime";
+    private static final String INVALID_ACCOUNT = "AccountTransferWorkflowInvalidAccount";
+
+    private final ActivityCompletionClient completionClient;
+    private final long latencyMillis;
+    private final ScheduledExecutorService callbacks;
+
+    public SimulatedBank(ActivityCompletionClient completionClient) {
+        this(completionClient, 1000, 4);
+    }
+
+    public SimulatedBank(ActivityCompletionClient completionClient, long latencyMillis, int callbackThreads) {
+        this.completionClient = completionClient;
+        this.latencyMillis = latencyMillis;
+        this.callbacks = Executors.newScheduledThreadPool(callbackThreads, runnable -> {
+            Thread thread = new Thread(runnable, "simulated-bank");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public void withdraw(byte[] taskToken, float amount, String type, int attempt) {
+        callbacks.schedule(() -> {
+            String error = (attempt < 5) ? type : "NoError";
+            log.info("Bank withdraw callback, amount = {}, type = {}, error = {}", amount, type, error);
+
+            if (API_DOWNTIME.equals(error)) {
+                // a transient error, which can be retried
+                complete(taskToken, null, new RuntimeException("Withdraw activity failed, API unavailable"));
+            } else {
+                complete(taskToken, "SUCCESS", null);
+            }
+        }, latencyMillis / attempt, TimeUnit.MILLISECONDS);
+    }
+
+    public void deposit(byte[] taskToken, float amount, String type, int attempt) {
+        callbacks.schedule(() -> {
+            String error = (attempt < 5) ? type : "NoError";
+            log.info("Bank deposit callback, amount = {}, type = {}, error = {}", amount, type, error);
+
+            if (INVALID_ACCOUNT.equals(error)) {
+                // a business error, which cannot be retried
+                complete(taskToken, null, ApplicationFailure.newNonRetryableFailure(
+                        "Deposit activity failed, account is invalid",
+                        "InvalidAccount"
+                ));
+            } else {
+                complete(taskToken, new DepositResponse("example-transfer-id"), null);
+            }
+        }, latencyMillis / attempt, TimeUnit.MILLISECONDS);
+    }
+
+    public void shutdown() {
+        callbacks.shutdown();
+    }
+
+    private void complete(byte[] taskToken, Object result, Exception failure) {
+        try {
+            if (failure == null) {
+                completionClient.complete(taskToken, result);
+            } else {
+                completionClient.completeExceptionally(taskToken, failure);
+            }
+        } catch (Exception e) {
+            // the activity may have timed out or been cancelled in the meantime, its retry starts a new request
+            log.warn("Bank callback could not complete activity", e);
+        }
+    }
+}
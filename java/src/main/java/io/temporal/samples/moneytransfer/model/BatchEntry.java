@@ -0,0 +1,16 @@
+package io.temporal.samples.moneytransfer.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchEntry {
+
+    private String idempotencyKey;
+    private int amount;
+    private String fromAccount;
+    private String toAccount;
+}
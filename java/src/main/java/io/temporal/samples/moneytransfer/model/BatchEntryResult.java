@@ -0,0 +1,20 @@
+package io.temporal.samples.moneytransfer.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchEntryResult {
+
+    private String idempotencyKey;
+    private boolean success;
+
+    // set for successful deposits
+    private String depositId;
+
+    // set for failed entries
+    private String error;
+}
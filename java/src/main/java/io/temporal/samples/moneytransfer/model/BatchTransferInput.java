@@ -0,0 +1,34 @@
+package io.temporal.samples.moneytransfer.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchTransferInput {
+
+    // transfers still to run, the batch workflow continues as new with the remainder
+    private List<TransferInput> transfers;
+
+    // child transfers running at once, 0 uses the workflow default
+    private int concurrency;
+
+    // child transfers started per run before continuing as new, 0 uses the workflow default
+    private int transfersPerRun;
+
+    // transfers per batched withdraw/deposit call, 0 runs each transfer as a child workflow instead
+    private int batchSize;
+
+    // progress carried over from earlier runs
+    private int total;
+    private int succeeded;
+    private int failed;
+
+    public BatchTransferInput(List<TransferInput> transfers, int concurrency) {
+        this(transfers, concurrency, 0, 0, 0, 0, 0);
+    }
+}
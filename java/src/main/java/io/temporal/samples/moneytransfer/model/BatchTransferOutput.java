@@ -0,0 +1,15 @@
+package io.temporal.samples.moneytransfer.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchTransferOutput {
+
+    private int total;
+    private int succeeded;
+    private int failed;
+}
@@ -0,0 +1,17 @@
+package io.temporal.samples.moneytransfer.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchTransferStatus {
+
+    private int progressPercentage;
+    private int total;
+    private int succeeded;
+    private int failed;
+    private int running;
+}
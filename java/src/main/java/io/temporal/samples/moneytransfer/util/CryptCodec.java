@@ -1,6 +1,8 @@
 package io.temporal.samples.moneytransfer.util;
 
 import com.google.protobuf.ByteString;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.UnsafeByteOperations;
 import io.temporal.api.common.v1.Payload;
 import io.temporal.common.converter.DataConverterException;
 import io.temporal.common.converter.EncodingKeys;
@@ -9,8 +11,14 @@ import io.temporal.payload.codec.PayloadCodecException;
 import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
 import java.security.SecureRandom;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 import java.util.stream.Collectors;
 import javax.crypto.Cipher;
 import javax.crypto.SecretKey;
@@ -18,6 +26,11 @@ import javax.crypto.spec.GCMParameterSpec;
 import javax.crypto.spec.SecretKeySpec;
 import org.jetbrains.annotations.NotNull;
 
+/**
+ * Encrypts each payload with AES-GCM under a key named in its metadata. The web server keeps a copy in
+ * {@code dataconverter}: workflows it starts are decrypted here and results the worker returns are decrypted there, so
+ * the two must stay wire compatible and change together.
+ */
 public class CryptCodec implements PayloadCodec {
 
     static final ByteString METADATA_ENCODING = ByteString.copyFrom("binary/encrypted", StandardCharsets.UTF_8);
@@ -29,9 +42,40 @@ public class CryptCodec implements PayloadCodec {
     private static final int GCM_TAG_LENGTH_BIT = 128;
     private static final Charset UTF_8 = StandardCharsets.UTF_8;
 
+    private static final int MAX_CACHED_KEYS = 16;
+    static final int MAX_POOLED_BUFFER_BYTES = 256 * 1024;
+    static final int BUFFER_POOL_SIZE = Math.max(Runtime.getRuntime().availableProcessors() * 2, 4);
+
+    // SecureRandom is thread-safe, one seeded instance serves every nonce
+    private static final SecureRandom NONCE_RANDOM = new SecureRandom();
+
+    // Cipher instances are not thread-safe but can be re-initialized, so keep one per thread
+    private static final ThreadLocal<Cipher> CIPHERS = ThreadLocal.withInitial(() -> {
+        try {
+            return Cipher.getInstance(CIPHER);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cipher " + CIPHER + " is not available", e);
+        }
+    });
+
+    // Direct scratch buffers for plaintext, borrowed by any thread and returned after use. At most BUFFER_POOL_SIZE are
+    // kept, so short-lived threads (a virtual thread per activity task) don't each strand a direct buffer for the
+    // Cleaner. Payloads above MAX_POOLED_BUFFER_BYTES get a one-off heap buffer.
+    private static final BlockingQueue<ByteBuffer> BUFFERS = new ArrayBlockingQueue<>(BUFFER_POOL_SIZE);
+
+    // keys by key ID, least recently used keys are evicted once MAX_CACHED_KEYS is reached
+    private final Map<String, SecretKey> keys = Collections.synchronizedMap(
+        new LinkedHashMap<>(MAX_CACHED_KEYS, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, SecretKey> eldest) {
+                return size() > MAX_CACHED_KEYS;
+            }
+        }
+    );
+
     private static byte[] getNonce(int size) {
         byte[] nonce = new byte[size];
-        new SecureRandom().nextBytes(nonce);
+        NONCE_RANDOM.nextBytes(nonce);
         return nonce;
     }
 
@@ -51,9 +95,9 @@ public class CryptCodec implements PayloadCodec {
         String keyId = getKeyId();
         SecretKey key = getKey(keyId);
 
-        byte[] encryptedData;
+        ByteString encryptedData;
         try {
-            encryptedData = encrypt(payload.toByteArray(), key);
+            encryptedData = encrypt(payload, key);
         } catch (Throwable e) {
             throw new DataConverterException(e);
         }
@@ -62,7 +106,7 @@ public class CryptCodec implements PayloadCodec {
             .putMetadata(EncodingKeys.METADATA_ENCODING_KEY, METADATA_ENCODING)
             .putMetadata(METADATA_ENCRYPTION_CIPHER_KEY, METADATA_ENCRYPTION_CIPHER)
             .putMetadata(METADATA_ENCRYPTION_KEY_ID_KEY, ByteString.copyFromUtf8(keyId))
-            .setData(ByteString.copyFrom(encryptedData))
+            .setData(encryptedData)
             .build();
     }
 
@@ -76,12 +120,8 @@ public class CryptCodec implements PayloadCodec {
             }
             SecretKey key = getKey(keyId);
 
-            byte[] plainData;
-            Payload decryptedPayload;
             try {
-                plainData = decrypt(payload.getData().toByteArray(), key);
-                decryptedPayload = Payload.parseFrom(plainData);
-                return decryptedPayload;
+                return decrypt(payload.getData(), key);
             } catch (Throwable e) {
                 throw new PayloadCodecException(e);
             }
@@ -99,28 +139,81 @@ public class CryptCodec implements PayloadCodec {
     }
 
     private SecretKey getKey(String keyId) {
+        return keys.computeIfAbsent(keyId, this::loadKey);
+    }
+
+    private SecretKey loadKey(String keyId) {
         // Key must be fetched from KMS or other secure storage.
         // Hard coded here only for example purposes.
         String key = "sa-rocks!sa-rocks!sa-rocks!yeah!";
         return new SecretKeySpec(key.getBytes(UTF_8), "AES");
     }
 
-    private byte[] encrypt(byte[] plainData, SecretKey key) throws Exception {
-        byte[] nonce = getNonce(GCM_NONCE_LENGTH_BYTE);
-        Cipher cipher = Cipher.getInstance(CIPHER);
-        cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(GCM_TAG_LENGTH_BIT, nonce));
-        byte[] encryptedData = cipher.doFinal(plainData);
-        return ByteBuffer.allocate(nonce.length + encryptedData.length).put(nonce).put(encryptedData).array();
+    // Serializes the payload into a pooled buffer and encrypts it straight into the array that backs the result,
+    // which is handed to protobuf without another copy. The array is never written after wrapping.
+    private ByteString encrypt(Payload payload, SecretKey key) throws Exception {
+        int plainSize = payload.getSerializedSize();
+        ByteBuffer plainData = acquireBuffer(plainSize);
+        try {
+            CodedOutputStream output = CodedOutputStream.newInstance(plainData);
+            payload.writeTo(output);
+            output.flush();
+            plainData.flip();
+
+            byte[] nonce = getNonce(GCM_NONCE_LENGTH_BYTE);
+            Cipher cipher = CIPHERS.get();
+            cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(GCM_TAG_LENGTH_BIT, nonce));
+            byte[] encryptedDataWithNonce = new byte[nonce.length + cipher.getOutputSize(plainSize)];
+            System.arraycopy(nonce, 0, encryptedDataWithNonce, 0, nonce.length);
+            int length = nonce.length + cipher.doFinal(
+                plainData,
+                ByteBuffer.wrap(encryptedDataWithNonce, nonce.length, encryptedDataWithNonce.length - nonce.length)
+            );
+            return UnsafeByteOperations.unsafeWrap(encryptedDataWithNonce, 0, length);
+        } finally {
+            releaseBuffer(plainData);
+        }
     }
 
-    private byte[] decrypt(byte[] encryptedDataWithNonce, SecretKey key) throws Exception {
-        ByteBuffer buffer = ByteBuffer.wrap(encryptedDataWithNonce);
+    // Decrypts from a read-only view of the payload data into a pooled buffer and parses the payload from there.
+    private Payload decrypt(ByteString encryptedDataWithNonce, SecretKey key) throws Exception {
+        ByteBuffer encryptedData = encryptedDataWithNonce.asReadOnlyByteBuffer();
         byte[] nonce = new byte[GCM_NONCE_LENGTH_BYTE];
-        buffer.get(nonce);
-        byte[] encryptedData = new byte[buffer.remaining()];
-        buffer.get(encryptedData);
-        Cipher cipher = Cipher.getInstance(CIPHER);
+        encryptedData.get(nonce);
+        Cipher cipher = CIPHERS.get();
         cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(GCM_TAG_LENGTH_BIT, nonce));
-        return cipher.doFinal(encryptedData);
+        ByteBuffer plainData = acquireBuffer(cipher.getOutputSize(encryptedData.remaining()));
+        try {
+            cipher.doFinal(encryptedData, plainData);
+            plainData.flip();
+            // parsing copies the bytes out, nothing refers to the buffer once it is returned
+            return Payload.parseFrom(plainData);
+        } finally {
+            releaseBuffer(plainData);
+        }
+    }
+
+    private static ByteBuffer acquireBuffer(int size) {
+        if (size > MAX_POOLED_BUFFER_BYTES) {
+            return ByteBuffer.allocate(size);
+        }
+        ByteBuffer buffer = BUFFERS.poll();
+        if (buffer == null || buffer.capacity() < size) {
+            // grow to the next power of two so the pool settles on buffers that fit quickly
+            buffer = ByteBuffer.allocateDirect(Math.max(Integer.highestOneBit(Math.max(size - 1, 1)) << 1, 8192));
+        }
+        buffer.clear().limit(size);
+        return buffer;
+    }
+
+    private static void releaseBuffer(ByteBuffer buffer) {
+        // one-off heap buffers are left to the GC, direct buffers beyond the pool size are dropped
+        if (buffer.isDirect()) {
+            BUFFERS.offer(buffer);
+        }
+    }
+
+    static int pooledBuffers() {
+        return BUFFERS.size();
     }
 }
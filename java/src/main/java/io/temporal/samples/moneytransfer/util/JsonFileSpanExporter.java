@@ -0,0 +1,86 @@
+package io.temporal.samples.moneytransfer.util;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collection;
+
+/**
+ * Appends finished spans to a file, one JSON object per line, for when no OTLP collector is running. Each line holds
+ * the span's IDs, name, service, start (epoch microseconds), duration and attributes, enough to rebuild a transfer's
+ * timeline with {@code jq} or a spreadsheet.
+ * <p>
+ * Mirrored in the web server's {@code helper} package so both processes write the same line format; change both.
+ */
+public class JsonFileSpanExporter implements SpanExporter {
+
+    private static final AttributeKey<String> SERVICE_NAME = AttributeKey.stringKey("service.name");
+    private static final JsonFactory JSON = new JsonFactory();
+
+    private final OutputStream out;
+
+    public JsonFileSpanExporter(String path) throws IOException {
+        this.out = new BufferedOutputStream(new FileOutputStream(path, true));
+    }
+
+    @Override
+    public synchronized CompletableResultCode export(Collection<SpanData> spans) {
+        try {
+            for (SpanData span : spans) {
+                // a generator per line, so the root separator Jackson would add between values is never written
+                try (JsonGenerator json = JSON.createGenerator(out, JsonEncoding.UTF8)) {
+                    json.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+                    write(json, span);
+                }
+                out.write('\n');
+            }
+            out.flush();
+            return CompletableResultCode.ofSuccess();
+        } catch (IOException e) {
+            return CompletableResultCode.ofFailure();
+        }
+    }
+
+    @Override
+    public CompletableResultCode flush() {
+        return CompletableResultCode.ofSuccess();
+    }
+
+    @Override
+    public synchronized CompletableResultCode shutdown() {
+        try {
+            out.close();
+            return CompletableResultCode.ofSuccess();
+        } catch (IOException e) {
+            return CompletableResultCode.ofFailure();
+        }
+    }
+
+    private static void write(JsonGenerator json, SpanData span) throws IOException {
+        json.writeStartObject();
+        json.writeStringField("traceId", span.getTraceId());
+        json.writeStringField("spanId", span.getSpanId());
+        if (span.getParentSpanContext().isValid()) {
+            json.writeStringField("parentSpanId", span.getParentSpanId());
+        }
+        json.writeStringField("name", span.getName());
+        json.writeStringField("service", span.getResource().getAttribute(SERVICE_NAME));
+        json.writeNumberField("startMicros", span.getStartEpochNanos() / 1000);
+        json.writeNumberField("durationMicros", (span.getEndEpochNanos() - span.getStartEpochNanos()) / 1000);
+        json.writeStringField("status", span.getStatus().getStatusCode().name());
+        json.writeObjectFieldStart("attributes");
+        for (var attribute : span.getAttributes().asMap().entrySet()) {
+            json.writeStringField(attribute.getKey().getKey(), String.valueOf(attribute.getValue()));
+        }
+        json.writeEndObject();
+        json.writeEndObject();
+    }
+}
@@ -0,0 +1,81 @@
+package io.temporal.samples.moneytransfer.util;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.temporal.api.common.v1.Payload;
+import io.temporal.payload.codec.PayloadCodec;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.UnaryOperator;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Times another codec and records the payload bytes it takes in and hands back, per operation. Meters are looked up
+ * once, so the hot path only adds two clock reads and a pass over the (memoized) payload sizes.
+ */
+public class MeteredCodec implements PayloadCodec {
+
+    private final PayloadCodec codec;
+    private final Operation encode;
+    private final Operation decode;
+
+    private static final class Operation {
+        private final Timer latency;
+        private final DistributionSummary bytesIn;
+        private final DistributionSummary bytesOut;
+
+        private Operation(MeterRegistry registry, String codec, String operation) {
+            this.latency = Timer.builder("transfer.codec")
+                .description("Time spent in a payload codec per payload list")
+                .tag("codec", codec)
+                .tag("operation", operation)
+                .register(registry);
+            this.bytesIn = bytes(registry, "transfer.codec.input", codec, operation);
+            this.bytesOut = bytes(registry, "transfer.codec.output", codec, operation);
+        }
+
+        private static DistributionSummary bytes(MeterRegistry registry, String name, String codec, String operation) {
+            return DistributionSummary.builder(name)
+                .baseUnit("bytes")
+                .tag("codec", codec)
+                .tag("operation", operation)
+                .register(registry);
+        }
+
+        private List<Payload> record(List<Payload> payloads, UnaryOperator<List<Payload>> call) {
+            long start = System.nanoTime();
+            List<Payload> result = call.apply(payloads);
+            latency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            bytesIn.record(size(payloads));
+            bytesOut.record(size(result));
+            return result;
+        }
+    }
+
+    public MeteredCodec(PayloadCodec codec, String name, MeterRegistry registry) {
+        this.codec = codec;
+        this.encode = new Operation(registry, name, "encode");
+        this.decode = new Operation(registry, name, "decode");
+    }
+
+    @NotNull
+    @Override
+    public List<Payload> encode(@NotNull List<Payload> payloads) {
+        return encode.record(payloads, codec::encode);
+    }
+
+    @NotNull
+    @Override
+    public List<Payload> decode(@NotNull List<Payload> payloads) {
+        return decode.record(payloads, codec::decode);
+    }
+
+    private static long size(List<Payload> payloads) {
+        long size = 0;
+        for (Payload payload : payloads) {
+            size += payload.getSerializedSize();
+        }
+        return size;
+    }
+}
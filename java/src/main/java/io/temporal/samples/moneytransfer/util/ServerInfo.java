@@ -40,6 +40,86 @@ public class ServerInfo {
         return workflowSleepDuration != 0 ? workflowSleepDuration : 5;
     }
 
+    // payloads smaller than this many bytes are not compressed
+    public static int getCompressionThreshold() {
+        return Math.max(getIntEnv("TEMPORAL_COMPRESSION_THRESHOLD", 256), 0);
+    }
+
+    // Worker tuning, 0 (or unset) keeps the SDK default
+
+    public static int getMaxConcurrentActivities() {
+        return getIntEnv("TEMPORAL_WORKER_MAX_CONCURRENT_ACTIVITIES", 0);
+    }
+
+    public static int getMaxConcurrentLocalActivities() {
+        return getIntEnv("TEMPORAL_WORKER_MAX_CONCURRENT_LOCAL_ACTIVITIES", 0);
+    }
+
+    public static int getMaxConcurrentWorkflowTasks() {
+        return getIntEnv("TEMPORAL_WORKER_MAX_CONCURRENT_WORKFLOW_TASKS", 0);
+    }
+
+    public static int getActivityPollers() {
+        return getIntEnv("TEMPORAL_WORKER_ACTIVITY_POLLERS", 0);
+    }
+
+    public static int getWorkflowPollers() {
+        return getIntEnv("TEMPORAL_WORKER_WORKFLOW_POLLERS", 0);
+    }
+
+    public static int getStickyCacheSize() {
+        return getIntEnv("TEMPORAL_WORKER_STICKY_CACHE_SIZE", 0);
+    }
+
+    public static int getMaxWorkflowThreads() {
+        return getIntEnv("TEMPORAL_WORKER_MAX_WORKFLOW_THREADS", 0);
+    }
+
+    public static double getWorkerActivitiesPerSecond() {
+        return getDoubleEnv("TEMPORAL_WORKER_ACTIVITIES_PER_SECOND", 0);
+    }
+
+    public static double getTaskQueueActivitiesPerSecond() {
+        return getDoubleEnv("TEMPORAL_TASK_QUEUE_ACTIVITIES_PER_SECOND", 0);
+    }
+
+    // size slots from CPU and memory use instead of fixed slot counts
+    public static boolean isResourceBasedTuner() {
+        return "true".equals(getEnv("TEMPORAL_WORKER_RESOURCE_TUNER", "false"));
+    }
+
+    public static double getTargetCpuUsage() {
+        return getDoubleEnv("TEMPORAL_WORKER_TARGET_CPU", 0.8);
+    }
+
+    public static double getTargetMemoryUsage() {
+        return getDoubleEnv("TEMPORAL_WORKER_TARGET_MEMORY", 0.8);
+    }
+
+    // run activity and workflow tasks on virtual threads, needs a Java 21 runtime
+    public static boolean isVirtualThreads() {
+        return "true".equals(getEnv("TEMPORAL_WORKER_VIRTUAL_THREADS", "false"));
+    }
+
+    // complete withdraw and deposit from a simulated bank callback instead of blocking the activity
+    public static boolean isAsyncBank() {
+        return "true".equals(getEnv("TEMPORAL_WORKER_ASYNC_BANK", "false"));
+    }
+
+    // serve Prometheus metrics on this port at /metrics, 0 disables the endpoint
+    public static int getMetricsPort() {
+        return getIntEnv("TEMPORAL_WORKER_METRICS_PORT", 9464);
+    }
+
+    // tracing is on when either is set: an OTLP gRPC collector (e.g. http://localhost:4317) or a JSON lines file
+    public static String getTraceOtlpEndpoint() {
+        return getEnv("TEMPORAL_TRACE_OTLP_ENDPOINT", "");
+    }
+
+    public static String getTraceFile() {
+        return getEnv("TEMPORAL_TRACE_FILE", "");
+    }
+
     public static Map<String, String> getServerInfo() {
         Map<String, String> info = new HashMap<>();
         info.put("certPath", getCertPath());
@@ -66,4 +146,24 @@ public class ServerInfo {
         String value = System.getenv(key);
         return value != null && !value.isEmpty() ? value : defaultValue;
     }
+
+    private static int getIntEnv(String key, int defaultValue) {
+        String value = getEnv(key, String.valueOf(defaultValue));
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            System.err.println("Error parsing environment variable as an integer: " + e.getMessage());
+            return defaultValue;
+        }
+    }
+
+    private static double getDoubleEnv(String key, double defaultValue) {
+        String value = getEnv(key, String.valueOf(defaultValue));
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            System.err.println("Error parsing environment variable as a number: " + e.getMessage());
+            return defaultValue;
+        }
+    }
 }
@@ -0,0 +1,67 @@
+package io.temporal.samples.moneytransfer.util;
+
+import io.opentracing.Tracer;
+import io.temporal.common.interceptors.WorkerInterceptorBase;
+import io.temporal.common.interceptors.WorkflowInboundCallsInterceptor;
+import io.temporal.common.interceptors.WorkflowInboundCallsInterceptorBase;
+import io.temporal.common.interceptors.WorkflowOutboundCallsInterceptor;
+import io.temporal.common.interceptors.WorkflowOutboundCallsInterceptorBase;
+import io.temporal.workflow.Workflow;
+import io.temporal.workflow.unsafe.WorkflowUnsafe;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Adds a span for every {@code Workflow.sleep} and timed {@code Workflow.await}, which Temporal's tracing interceptor
+ * leaves out, so the time a transfer spends on timers shows up next to its activities. The span is built once the
+ * timer is over, from workflow time, and only outside replay: a transfer evicted from the cache while it sleeps still
+ * reports the sleep exactly once, from the worker that wakes it up.
+ */
+public class TimerTracingInterceptor extends WorkerInterceptorBase {
+
+    private final Tracer tracer;
+
+    public TimerTracingInterceptor(Tracer tracer) {
+        this.tracer = tracer;
+    }
+
+    @Override
+    public WorkflowInboundCallsInterceptor interceptWorkflow(WorkflowInboundCallsInterceptor next) {
+        return new WorkflowInboundCallsInterceptorBase(next) {
+            @Override
+            public void init(WorkflowOutboundCallsInterceptor outboundCalls) {
+                super.init(new WorkflowOutboundCallsInterceptorBase(outboundCalls) {
+                    @Override
+                    public void sleep(Duration duration) {
+                        long start = Workflow.currentTimeMillis();
+                        super.sleep(duration);
+                        record("Sleep", start, duration, null);
+                    }
+
+                    @Override
+                    public boolean await(Duration timeout, String reason, Supplier<Boolean> unblockCondition) {
+                        long start = Workflow.currentTimeMillis();
+                        boolean unblocked = super.await(timeout, reason, unblockCondition);
+                        record("Await", start, timeout, unblocked);
+                        return unblocked;
+                    }
+                });
+            }
+        };
+    }
+
+    private void record(String operation, long startMillis, Duration timeout, Boolean unblocked) {
+        if (WorkflowUnsafe.isReplaying()) {
+            return;
+        }
+        Tracer.SpanBuilder span = tracer.buildSpan(operation)
+            .withStartTimestamp(TimeUnit.MILLISECONDS.toMicros(startMillis))
+            .withTag("timer.duration", timeout.toString());
+        if (unblocked != null) {
+            // false means the timeout ran out before the condition was met
+            span.withTag("await.unblocked", unblocked);
+        }
+        span.start().finish(TimeUnit.MILLISECONDS.toMicros(Workflow.currentTimeMillis()));
+    }
+}
@@ -0,0 +1,77 @@
+package io.temporal.samples.moneytransfer.util;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.propagation.W3CTraceContextPropagator;
+import io.opentelemetry.context.propagation.ContextPropagators;
+import io.opentelemetry.exporter.otlp.trace.OtlpGrpcSpanExporter;
+import io.opentelemetry.opentracingshim.OpenTracingShim;
+import io.opentelemetry.sdk.OpenTelemetrySdk;
+import io.opentelemetry.sdk.resources.Resource;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.SdkTracerProviderBuilder;
+import io.opentelemetry.sdk.trace.export.BatchSpanProcessor;
+import io.opentracing.Tracer;
+import io.temporal.opentracing.OpenTracingOptions;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * OpenTelemetry tracing for the worker, bridged to the OpenTracing API that Temporal's tracing interceptors use. Spans
+ * go to an OTLP collector at TEMPORAL_TRACE_OTLP_ENDPOINT, to the TEMPORAL_TRACE_FILE JSON lines file, or both. With
+ * neither set tracing is off and no interceptors are registered. Trace context travels in W3C {@code traceparent}
+ * headers, the same as the web server's, so a transfer's spans join the trace of the request that started it.
+ * <p>
+ * The web server has a deliberate copy in {@code helper.Tracing}; the two modules share no code. Keep the settings and
+ * propagation of both in step, or traces stop joining up across the two processes.
+ */
+public class Tracing {
+
+    private static final String SERVICE_NAME = "money-transfer-worker";
+
+    private static Tracer tracer;
+
+    public static boolean isEnabled() {
+        return !ServerInfo.getTraceOtlpEndpoint().isEmpty() || !ServerInfo.getTraceFile().isEmpty();
+    }
+
+    public static synchronized Tracer getTracer() {
+        if (tracer == null) {
+            OpenTelemetrySdk sdk = OpenTelemetrySdk.builder()
+                .setTracerProvider(newTracerProvider())
+                .setPropagators(ContextPropagators.create(W3CTraceContextPropagator.getInstance()))
+                .build();
+            // flushes the spans still batched when the worker stops
+            Runtime.getRuntime().addShutdownHook(new Thread(sdk::close, "tracing-shutdown"));
+            tracer = OpenTracingShim.createTracerShim(sdk);
+        }
+        return tracer;
+    }
+
+    public static OpenTracingOptions getOptions() {
+        return OpenTracingOptions.newBuilder().setTracer(getTracer()).build();
+    }
+
+    private static SdkTracerProvider newTracerProvider() {
+        SdkTracerProviderBuilder builder = SdkTracerProvider.builder()
+            .setResource(Resource.getDefault().merge(
+                Resource.create(Attributes.of(AttributeKey.stringKey("service.name"), SERVICE_NAME))
+            ));
+
+        if (!ServerInfo.getTraceOtlpEndpoint().isEmpty()) {
+            builder.addSpanProcessor(BatchSpanProcessor.builder(
+                OtlpGrpcSpanExporter.builder().setEndpoint(ServerInfo.getTraceOtlpEndpoint()).build()
+            ).build());
+        }
+        if (!ServerInfo.getTraceFile().isEmpty()) {
+            try {
+                builder.addSpanProcessor(
+                    BatchSpanProcessor.builder(new JsonFileSpanExporter(ServerInfo.getTraceFile())).build()
+                );
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot open trace file " + ServerInfo.getTraceFile(), e);
+            }
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,43 @@
+package io.temporal.samples.moneytransfer.util;
+
+import com.uber.m3.tally.RootScopeBuilder;
+import com.uber.m3.tally.Scope;
+import io.javalin.Javalin;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import io.temporal.common.reporter.MicrometerClientStatsReporter;
+
+/**
+ * Prometheus registry shared by the SDK's worker metrics (poll latency, schedule-to-start, slot usage, sticky cache)
+ * and this sample's own activity and codec meters. {@link #start(int)} serves it as text on {@code /metrics}.
+ */
+public class WorkerMetrics {
+
+    private static final PrometheusMeterRegistry REGISTRY = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+
+    // the SDK reports through tally, which flushes its aggregates to the registry on this interval
+    private static final com.uber.m3.util.Duration REPORT_INTERVAL = com.uber.m3.util.Duration.ofSeconds(10);
+
+    private static Scope scope;
+
+    public static PrometheusMeterRegistry getRegistry() {
+        return REGISTRY;
+    }
+
+    // one scope per process, shared by every service stub so SDK metrics aren't split across reporters
+    public static synchronized Scope getScope() {
+        if (scope == null) {
+            scope = new RootScopeBuilder()
+                    .reporter(new MicrometerClientStatsReporter(REGISTRY))
+                    .reportEvery(REPORT_INTERVAL);
+        }
+        return scope;
+    }
+
+    public static Javalin start(int port) {
+        return Javalin.create()
+                .get("/metrics", ctx -> ctx.contentType("text/plain; version=0.0.4; charset=utf-8")
+                        .result(REGISTRY.scrape()))
+                .start(port);
+    }
+}
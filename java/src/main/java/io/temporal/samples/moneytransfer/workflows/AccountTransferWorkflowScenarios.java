@@ -29,9 +29,16 @@ public class AccountTransferWorkflowScenarios implements DynamicWorkflow {
         AccountTransferActivities.activityOptions
     );
 
+    // validate is short and idempotent, so it may run as a local activity
+    private final AccountTransferActivities localActivities = Workflow.newLocalActivityStub(
+        AccountTransferActivities.class,
+        AccountTransferActivities.localActivityOptions
+    );
+
     private int progress = 0;
     private String transferState = "starting";
     private DepositResponse depositResponse = new DepositResponse("");
+    private boolean paced = true;
 
     private int approvalTime = 30;
     private boolean approved = false;
@@ -43,10 +50,11 @@ public class AccountTransferWorkflowScenarios implements DynamicWorkflow {
         String type = Workflow.getInfo().getWorkflowType();
         log.info("Dynamic Account Transfer workflow started, type = {}", type);
         String idempotencyKey = Workflow.randomUUID().toString();
+        paced = !TransferInput.PROFILE_PRODUCTION.equals(input.getProfile());
 
         // Validate
         upsertStep("Validate");
-        activities.validate(input);
+        (input.isLocalActivities() ? localActivities : activities).validate(input);
         updateProgress(25, 1);
 
         if (NEEDS_APPROVAL.equals(type)) {
@@ -119,7 +127,7 @@ public class AccountTransferWorkflowScenarios implements DynamicWorkflow {
     }
 
     private void updateProgress(int progress, int sleep, String transferState) {
-        if (sleep > 0) {
+        if (paced && sleep > 0) {
             Workflow.sleep(Duration.ofSeconds(sleep));
         }
         this.transferState = transferState;
@@ -0,0 +1,17 @@
+package io.temporal.samples.moneytransfer.workflows;
+
+import io.temporal.samples.moneytransfer.model.BatchTransferInput;
+import io.temporal.samples.moneytransfer.model.BatchTransferOutput;
+import io.temporal.samples.moneytransfer.model.BatchTransferStatus;
+import io.temporal.workflow.QueryMethod;
+import io.temporal.workflow.WorkflowInterface;
+import io.temporal.workflow.WorkflowMethod;
+
+@WorkflowInterface
+public interface BatchTransferWorkflow {
+    @WorkflowMethod
+    BatchTransferOutput transferBatch(BatchTransferInput input);
+
+    @QueryMethod(name = "batchStatus")
+    BatchTransferStatus queryBatchStatus();
+}
@@ -0,0 +1,209 @@
+package io.temporal.samples.moneytransfer.workflows;
+
+import io.temporal.common.converter.DefaultDataConverter;
+import io.temporal.failure.ApplicationFailure;
+import io.temporal.samples.moneytransfer.activities.AccountTransferActivities;
+import io.temporal.samples.moneytransfer.activities.BatchTransferActivities;
+import io.temporal.samples.moneytransfer.model.BatchEntry;
+import io.temporal.samples.moneytransfer.model.BatchEntryResult;
+import io.temporal.samples.moneytransfer.model.BatchTransferInput;
+import io.temporal.samples.moneytransfer.model.BatchTransferOutput;
+import io.temporal.samples.moneytransfer.model.BatchTransferStatus;
+import io.temporal.samples.moneytransfer.model.TransferInput;
+import io.temporal.workflow.Async;
+import io.temporal.workflow.ChildWorkflowOptions;
+import io.temporal.workflow.Promise;
+import io.temporal.workflow.Workflow;
+import org.slf4j.Logger;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs a list of transfers as child {@link AccountTransferWorkflow}s, at most {@code concurrency} at a time. With a
+ * {@code batchSize} the transfers instead go through {@link BatchTransferActivities}, coalesced into withdraw and
+ * deposit calls of up to {@code batchSize} entries; keep {@code concurrency} at or above it so batches can fill.
+ * After {@code transfersPerRun} transfers (or when the server suggests it) the workflow waits for the running ones and
+ * continues as new with the rest, so no single run's history grows with the size of the batch. The rest of the list is
+ * carried in the continue-as-new input, so a batch whose transfers serialize to more than
+ * {@link #MAX_TRANSFERS_BYTES} is rejected before any transfer starts.
+ */
+public class BatchTransferWorkflowImpl implements BatchTransferWorkflow {
+
+    private static final Logger log = Workflow.getLogger(BatchTransferWorkflowImpl.class);
+
+    private static final int DEFAULT_CONCURRENCY = 50;
+    private static final int DEFAULT_TRANSFERS_PER_RUN = 500;
+
+    // leaves room under the server's 2 MB payload limit for codec overhead and the rest of the input
+    public static final int MAX_TRANSFERS_BYTES = 1024 * 1024;
+
+    // how long a partial batch waits for more transfers before it is sent
+    private static final Duration BATCH_WINDOW = Duration.ofMillis(200);
+
+    private final BatchTransferActivities batchActivities = Workflow.newActivityStub(
+            BatchTransferActivities.class,
+            BatchTransferActivities.activityOptions
+    );
+
+    private final AccountTransferActivities activities = Workflow.newActivityStub(
+            AccountTransferActivities.class,
+            AccountTransferActivities.activityOptions
+    );
+
+    private MicroBatcher<BatchEntry, BatchEntryResult> withdrawals;
+    private MicroBatcher<BatchEntry, BatchEntryResult> deposits;
+
+    private int total;
+    private int succeeded;
+    private int failed;
+    private int running;
+
+    @Override
+    public BatchTransferOutput transferBatch(BatchTransferInput input) {
+        List<TransferInput> transfers = input.getTransfers() != null ? input.getTransfers() : new ArrayList<>();
+        checkSize(transfers);
+        int concurrency = input.getConcurrency() > 0 ? input.getConcurrency() : DEFAULT_CONCURRENCY;
+        int transfersPerRun = input.getTransfersPerRun() > 0 ? input.getTransfersPerRun() : DEFAULT_TRANSFERS_PER_RUN;
+
+        total = input.getTotal() > 0 ? input.getTotal() : transfers.size();
+        succeeded = input.getSucceeded();
+        failed = input.getFailed();
+        log.info("Batch transfer run started, {} of {} transfers remaining", transfers.size(), total);
+
+        if (input.getBatchSize() > 0) {
+            withdrawals = new MicroBatcher<>(
+                    input.getBatchSize(),
+                    BATCH_WINDOW,
+                    entries -> Async.function(batchActivities::withdrawBatch, entries)
+            );
+            deposits = new MicroBatcher<>(
+                    input.getBatchSize(),
+                    BATCH_WINDOW,
+                    entries -> Async.function(batchActivities::depositBatch, entries)
+            );
+        }
+
+        int started = 0;
+        while (started < transfers.size() && started < transfersPerRun) {
+            if (started > 0 && Workflow.getInfo().isContinueAsNewSuggested()) {
+                break;
+            }
+            Workflow.await(() -> running < concurrency);
+            if (withdrawals != null) {
+                startBatchedTransfer(total - transfers.size() + started, transfers.get(started));
+            } else {
+                startTransfer(total - transfers.size() + started, transfers.get(started));
+            }
+            started++;
+        }
+        if (withdrawals != null) {
+            withdrawals.flush();
+        }
+        Workflow.await(() -> running == 0);
+
+        if (started < transfers.size()) {
+            List<TransferInput> remaining = new ArrayList<>(transfers.subList(started, transfers.size()));
+            Workflow.continueAsNew(
+                    new BatchTransferInput(
+                            remaining,
+                            concurrency,
+                            transfersPerRun,
+                            input.getBatchSize(),
+                            total,
+                            succeeded,
+                            failed
+                    )
+            );
+        }
+
+        log.info("Batch transfer finished, {} succeeded, {} failed", succeeded, failed);
+        return new BatchTransferOutput(total, succeeded, failed);
+    }
+
+    // rolls back the withdrawal of a transfer whose deposit failed, either on its own or with the whole batch
+    private Promise<BatchEntryResult> undo(BatchEntry entry, BatchEntryResult deposited) {
+        return Async.function(activities::undoWithdraw, (float) entry.getAmount()).handle((undone, failure) -> {
+            if (failure != null) {
+                log.error("Undo of withdrawal {} failed: {}", entry.getIdempotencyKey(), failure.getMessage());
+            }
+            return deposited;
+        });
+    }
+
+    private static void checkSize(List<TransferInput> transfers) {
+        // the standard converter is deterministic, so this is safe to run in workflow code
+        int size = DefaultDataConverter.STANDARD_INSTANCE.toPayload(transfers).get().getSerializedSize();
+        if (size > MAX_TRANSFERS_BYTES) {
+            throw ApplicationFailure.newNonRetryableFailure(
+                    "Batch of " + transfers.size() + " transfers is " + size + " bytes, more than the "
+                            + MAX_TRANSFERS_BYTES + " bytes a batch can carry between runs; "
+                            + "split it into smaller batches",
+                    "BatchTooLarge"
+            );
+        }
+    }
+
+    @Override
+    public BatchTransferStatus queryBatchStatus() {
+        int progress = total > 0 ? (succeeded + failed) * 100 / total : 100;
+        return new BatchTransferStatus(progress, total, succeeded, failed, running);
+    }
+
+    private void startTransfer(int index, TransferInput transfer) {
+        // the index is stable across continue-as-new, so each child keeps a unique id within the batch
+        AccountTransferWorkflow child = Workflow.newChildWorkflowStub(
+                AccountTransferWorkflow.class,
+                ChildWorkflowOptions.newBuilder()
+                        .setWorkflowId(Workflow.getInfo().getWorkflowId() + "-" + index)
+                        .build()
+        );
+
+        running++;
+        Async.function(child::transfer, transfer).handle((output, failure) -> {
+            running--;
+            if (failure == null) {
+                succeeded++;
+            } else {
+                log.warn("Transfer {} of the batch failed: {}", index, failure.getMessage());
+                failed++;
+            }
+            return null;
+        });
+    }
+
+    private void startBatchedTransfer(int index, TransferInput transfer) {
+        BatchEntry entry = new BatchEntry(
+                Workflow.randomUUID().toString(),
+                transfer.getAmount(),
+                transfer.getFromAccount(),
+                transfer.getToAccount()
+        );
+
+        // running stays incremented until the deposit, and any undo of the withdrawal, has finished
+        running++;
+        withdrawals.add(entry).thenCompose(withdrawn -> {
+            if (!withdrawn.isSuccess()) {
+                return Workflow.newPromise(withdrawn);
+            }
+            return deposits.add(entry)
+                    .handle((deposited, failure) -> failure == null
+                            ? deposited
+                            : new BatchEntryResult(entry.getIdempotencyKey(), false, null, failure.getMessage()))
+                    .thenCompose(deposited -> deposited.isSuccess()
+                            ? Workflow.newPromise(deposited)
+                            : undo(entry, deposited));
+        }).handle((result, failure) -> {
+            running--;
+            if (failure == null && result.isSuccess()) {
+                succeeded++;
+            } else {
+                String error = failure != null ? failure.getMessage() : result.getError();
+                log.warn("Transfer {} of the batch failed: {}", index, error);
+                failed++;
+            }
+            return null;
+        });
+    }
+}
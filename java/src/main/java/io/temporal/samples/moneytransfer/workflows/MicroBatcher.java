@@ -0,0 +1,95 @@
+package io.temporal.samples.moneytransfer.workflows;
+
+import io.temporal.workflow.CancellationScope;
+import io.temporal.workflow.CompletablePromise;
+import io.temporal.workflow.Functions;
+import io.temporal.workflow.Promise;
+import io.temporal.workflow.Workflow;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Coalesces single-item calls made from workflow code into one batched call. A batch is sent when it reaches
+ * {@code maxSize} items, or {@code maxDelay} after its first item, whichever comes first. Only use it from workflow
+ * code: the delay is a workflow timer and results are completed on the workflow thread. A batch sent early cancels its
+ * timer, so it doesn't leave a fired timer in the history.
+ */
+class MicroBatcher<I, O> {
+
+    private final int maxSize;
+    private final Duration maxDelay;
+    private final Functions.Func1<List<I>, Promise<List<O>>> send;
+
+    private List<I> items = new ArrayList<>();
+    private List<CompletablePromise<O>> results = new ArrayList<>();
+
+    // bumped on every flush, so a timer only flushes the batch it was started for
+    private int generation;
+
+    // holds the timer of the pending batch, null while no batch is pending
+    private CancellationScope timerScope;
+
+    MicroBatcher(int maxSize, Duration maxDelay, Functions.Func1<List<I>, Promise<List<O>>> send) {
+        this.maxSize = maxSize;
+        this.maxDelay = maxDelay;
+        this.send = send;
+    }
+
+    Promise<O> add(I item) {
+        CompletablePromise<O> result = Workflow.newPromise();
+        items.add(item);
+        results.add(result);
+
+        if (items.size() >= maxSize) {
+            flush();
+        } else if (items.size() == 1) {
+            int batch = generation;
+            timerScope = Workflow.newCancellationScope(() -> {
+                Workflow.newTimer(maxDelay).handle((fired, failure) -> {
+                    // a canceled timer fails with a CanceledFailure, its batch has already been sent
+                    if (failure == null && batch == generation) {
+                        flush();
+                    }
+                    return null;
+                });
+            });
+            timerScope.run();
+        }
+        return result;
+    }
+
+    void flush() {
+        if (items.isEmpty()) {
+            return;
+        }
+        List<I> batchItems = items;
+        List<CompletablePromise<O>> batchResults = results;
+        items = new ArrayList<>();
+        results = new ArrayList<>();
+        generation++;
+        if (timerScope != null) {
+            timerScope.cancel();
+            timerScope = null;
+        }
+
+        send.apply(batchItems).handle((outputs, failure) -> {
+            if (failure == null && (outputs == null || outputs.size() != batchResults.size())) {
+                // results are matched to items by position, so a short or long reply can't be attributed
+                failure = new IllegalStateException(
+                        "Batch of " + batchResults.size() + " items returned "
+                                + (outputs == null ? "no" : String.valueOf(outputs.size())) + " results"
+                );
+            }
+            for (int i = 0; i < batchResults.size(); i++) {
+                if (failure != null) {
+                    batchResults.get(i).completeExceptionally(failure);
+                } else {
+                    batchResults.get(i).complete(outputs.get(i));
+                }
+            }
+            return null;
+        });
+    }
+}
@@ -0,0 +1,234 @@
+package io.temporal.samples.moneytransfer;
+
+import io.temporal.api.history.v1.HistoryEvent;
+import io.temporal.client.WorkflowFailedException;
+import io.temporal.client.WorkflowOptions;
+import io.temporal.client.WorkflowStub;
+import io.temporal.failure.ApplicationFailure;
+import io.temporal.samples.moneytransfer.activities.AccountTransferActivities;
+import io.temporal.samples.moneytransfer.activities.BatchTransferActivities;
+import io.temporal.samples.moneytransfer.model.BatchEntry;
+import io.temporal.samples.moneytransfer.model.BatchEntryResult;
+import io.temporal.samples.moneytransfer.model.BatchTransferInput;
+import io.temporal.samples.moneytransfer.model.BatchTransferOutput;
+import io.temporal.samples.moneytransfer.model.BatchTransferStatus;
+import io.temporal.samples.moneytransfer.model.DepositResponse;
+import io.temporal.samples.moneytransfer.model.TransferInput;
+import io.temporal.samples.moneytransfer.workflows.AccountTransferWorkflowImpl;
+import io.temporal.samples.moneytransfer.workflows.BatchTransferWorkflow;
+import io.temporal.samples.moneytransfer.workflows.BatchTransferWorkflowImpl;
+import io.temporal.testing.TestWorkflowRule;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.*;
+
+public class BatchTransferWorkflowTest {
+
+    @Rule
+    public TestWorkflowRule testWorkflowRule = TestWorkflowRule.newBuilder()
+            .setWorkflowTypes(BatchTransferWorkflowImpl.class, AccountTransferWorkflowImpl.class)
+            .setDoNotStart(true)
+            .build();
+
+    /**
+     * Test a batch that spans several runs, with one transfer failing
+     */
+    @Test
+    public void testBatchContinuesAsNew() {
+        AccountTransferActivities activities = mock(
+                AccountTransferActivities.class,
+                withSettings().withoutAnnotations()
+        );
+        when(activities.withdraw(anyString(), anyFloat(), anyString())).thenReturn("SUCCESS");
+        when(activities.deposit(anyString(), anyFloat(), anyString())).thenReturn(new DepositResponse("example-charge-id"));
+        when(activities.deposit(anyString(), eq(13.0f), anyString())).thenThrow(
+                ApplicationFailure.newNonRetryableFailure("Deposit activity failed, account is invalid", "InvalidAccount")
+        );
+        testWorkflowRule.getWorker().registerActivitiesImplementations(activities);
+        testWorkflowRule.getTestEnvironment().start();
+
+        List<TransferInput> transfers = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            transfers.add(new TransferInput(i, "account" + i, "account" + (i + 1), TransferInput.PROFILE_PRODUCTION));
+        }
+
+        BatchTransferWorkflow workflow = testWorkflowRule
+                .getWorkflowClient()
+                .newWorkflowStub(
+                        BatchTransferWorkflow.class,
+                        WorkflowOptions.newBuilder()
+                                .setWorkflowId("BatchTransferWorkflow")
+                                .setTaskQueue(testWorkflowRule.getTaskQueue())
+                                .build()
+                );
+        WorkflowStub stub = WorkflowStub.fromTyped(workflow);
+        String firstRunId = stub.start(new BatchTransferInput(transfers, 5, 10, 0, 0, 0, 0)).getRunId();
+
+        BatchTransferOutput output = stub.getResult(BatchTransferOutput.class);
+        assertEquals(new BatchTransferOutput(25, 24, 1), output);
+
+        // ten transfers per run, so the batch finished in a later run than it started
+        BatchTransferWorkflow latest = testWorkflowRule
+                .getWorkflowClient()
+                .newWorkflowStub(BatchTransferWorkflow.class, "BatchTransferWorkflow");
+        assertNotEquals(firstRunId, WorkflowStub.fromTyped(latest).getExecution().getRunId());
+        assertEquals(new BatchTransferStatus(100, 25, 24, 1, 0), latest.queryBatchStatus());
+    }
+
+    /**
+     * Test batched withdraw and deposit, ten transfers per activity call
+     */
+    @Test
+    public void testBatchedActivities() {
+        BatchTransferActivities batchActivities = mock(
+                BatchTransferActivities.class,
+                withSettings().withoutAnnotations()
+        );
+        when(batchActivities.withdrawBatch(anyList())).thenAnswer(invocation -> results(invocation.getArgument(0)));
+        when(batchActivities.depositBatch(anyList())).thenAnswer(invocation -> results(invocation.getArgument(0)));
+        testWorkflowRule.getWorker().registerActivitiesImplementations(batchActivities);
+        testWorkflowRule.getTestEnvironment().start();
+
+        List<TransferInput> transfers = new ArrayList<>();
+        for (int i = 0; i < 95; i++) {
+            transfers.add(new TransferInput(i, "account" + i, "account" + (i + 1)));
+        }
+
+        BatchTransferWorkflow workflow = testWorkflowRule
+                .getWorkflowClient()
+                .newWorkflowStub(
+                        BatchTransferWorkflow.class,
+                        WorkflowOptions.newBuilder().setTaskQueue(testWorkflowRule.getTaskQueue()).build()
+                );
+        BatchTransferOutput output = workflow.transferBatch(new BatchTransferInput(transfers, 50, 0, 10, 0, 0, 0));
+
+        // the transfer with amount 0 fails its withdrawal and is never deposited
+        assertEquals(new BatchTransferOutput(95, 94, 1), output);
+        verify(batchActivities, times(10)).withdrawBatch(anyList());
+        verify(batchActivities, times(10)).depositBatch(anyList());
+
+        List<HistoryEvent> events = testWorkflowRule
+                .getWorkflowClient()
+                .fetchHistory(WorkflowStub.fromTyped(workflow).getExecution().getWorkflowId())
+                .getEvents();
+        // the 18 full batches cancel their window timers, only the last withdrawals and deposits may wait for theirs
+        long started = events.stream().filter(HistoryEvent::hasTimerStartedEventAttributes).count();
+        long fired = events.stream().filter(HistoryEvent::hasTimerFiredEventAttributes).count();
+        long canceled = events.stream().filter(HistoryEvent::hasTimerCanceledEventAttributes).count();
+        assertTrue(fired <= 2);
+        assertEquals(started, fired + canceled);
+    }
+
+    /**
+     * Test failed deposits, one failed entry and one failed batch call, undo the withdrawal of each failed transfer
+     */
+    @Test
+    public void testFailedDepositsUndoWithdrawals() {
+        BatchTransferActivities batchActivities = mock(
+                BatchTransferActivities.class,
+                withSettings().withoutAnnotations()
+        );
+        AccountTransferActivities activities = mock(
+                AccountTransferActivities.class,
+                withSettings().withoutAnnotations()
+        );
+        when(batchActivities.withdrawBatch(anyList())).thenAnswer(invocation -> results(invocation.getArgument(0)));
+        when(batchActivities.depositBatch(anyList())).thenAnswer(invocation -> {
+            List<BatchEntry> entries = invocation.getArgument(0);
+            if (entries.stream().anyMatch(entry -> entry.getAmount() == 13)) {
+                throw ApplicationFailure.newNonRetryableFailure("Bank rejected the batch", "BatchRejected");
+            }
+            List<BatchEntryResult> results = results(entries);
+            for (int i = 0; i < entries.size(); i++) {
+                BatchEntry entry = entries.get(i);
+                if (entry.getAmount() == 5) {
+                    results.set(i, new BatchEntryResult(entry.getIdempotencyKey(), false, null, "InvalidAccount"));
+                }
+            }
+            return results;
+        });
+        when(activities.undoWithdraw(anyFloat())).thenReturn(true);
+        testWorkflowRule.getWorker().registerActivitiesImplementations(batchActivities, activities);
+        testWorkflowRule.getTestEnvironment().start();
+
+        List<TransferInput> transfers = new ArrayList<>();
+        for (int i = 1; i <= 20; i++) {
+            transfers.add(new TransferInput(i, "account" + i, "account" + (i + 1)));
+        }
+
+        BatchTransferWorkflow workflow = testWorkflowRule
+                .getWorkflowClient()
+                .newWorkflowStub(
+                        BatchTransferWorkflow.class,
+                        WorkflowOptions.newBuilder().setTaskQueue(testWorkflowRule.getTaskQueue()).build()
+                );
+        BatchTransferOutput output = workflow.transferBatch(new BatchTransferInput(transfers, 50, 0, 10, 0, 0, 0));
+
+        // amount 5 fails on its own, the second deposit batch (11 to 20) fails as a whole
+        assertEquals(new BatchTransferOutput(20, 9, 11), output);
+        verify(activities).undoWithdraw(5.0f);
+        for (int i = 11; i <= 20; i++) {
+            verify(activities).undoWithdraw((float) i);
+        }
+        verify(activities, times(11)).undoWithdraw(anyFloat());
+    }
+
+    /**
+     * Test a batch too large to carry between runs is rejected before any transfer starts
+     */
+    @Test
+    public void testOversizedBatchRejected() {
+        AccountTransferActivities activities = mock(
+                AccountTransferActivities.class,
+                withSettings().withoutAnnotations()
+        );
+        testWorkflowRule.getWorker().registerActivitiesImplementations(activities);
+        testWorkflowRule.getTestEnvironment().start();
+
+        String account = String.join("", Collections.nCopies(4096, "a"));
+        List<TransferInput> transfers = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            transfers.add(new TransferInput(i, account + i, account + (i + 1)));
+        }
+
+        BatchTransferWorkflow workflow = testWorkflowRule
+                .getWorkflowClient()
+                .newWorkflowStub(
+                        BatchTransferWorkflow.class,
+                        WorkflowOptions.newBuilder().setTaskQueue(testWorkflowRule.getTaskQueue()).build()
+                );
+        WorkflowFailedException e = assertThrows(
+                WorkflowFailedException.class,
+                () -> workflow.transferBatch(new BatchTransferInput(transfers, 5))
+        );
+        ApplicationFailure failure = (ApplicationFailure) e.getCause();
+        assertEquals("BatchTooLarge", failure.getType());
+        assertTrue(failure.getOriginalMessage().startsWith("Batch of 300 transfers"));
+        verifyNoInteractions(activities);
+    }
+
+    private static List<BatchEntryResult> results(List<BatchEntry> entries) {
+        List<BatchEntryResult> results = new ArrayList<>();
+        for (BatchEntry entry : entries) {
+            boolean success = entry.getAmount() > 0;
+            results.add(new BatchEntryResult(entry.getIdempotencyKey(), success, null, success ? null : "InvalidAmount"));
+        }
+        return results;
+    }
+
+    // Clean up test environment after tests are completed
+    @After
+    public void tearDown() {
+        testWorkflowRule.getTestEnvironment().shutdown();
+    }
+}
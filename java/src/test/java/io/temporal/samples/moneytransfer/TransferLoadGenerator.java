@@ -0,0 +1,374 @@
+package io.temporal.samples.moneytransfer;
+
+import io.temporal.api.enums.v1.IndexedValueType;
+import io.temporal.client.WorkflowClient;
+import io.temporal.client.WorkflowOptions;
+import io.temporal.client.WorkflowStub;
+import io.temporal.common.interceptors.ActivityInboundCallsInterceptor;
+import io.temporal.common.interceptors.ActivityInboundCallsInterceptorBase;
+import io.temporal.common.interceptors.WorkerInterceptor;
+import io.temporal.common.interceptors.WorkerInterceptorBase;
+import io.temporal.samples.moneytransfer.model.TransferInput;
+import io.temporal.samples.moneytransfer.model.TransferOutput;
+import io.temporal.samples.moneytransfer.model.TransferStatus;
+import io.temporal.samples.moneytransfer.util.ServerInfo;
+import io.temporal.testing.TestEnvironmentOptions;
+import io.temporal.testing.TestWorkflowEnvironment;
+import io.temporal.worker.Worker;
+import io.temporal.worker.WorkerFactory;
+import io.temporal.worker.WorkerFactoryOptions;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-loop load generator: starts transfers at a constant arrival rate, whether or not earlier ones have finished,
+ * and records each transfer's latency from its scheduled start to its completion in an HdrHistogram. Measuring from
+ * the scheduled start rather than the actual one keeps a backed-up client from hiding queueing delay. Transfers are
+ * spread over a weighted mix of scenarios. With a worker in this process it also reports the most activities that
+ * worker ran at once, and the process's peak platform thread count, so runs with and without {@code -PvirtualThreads}
+ * or {@code TEMPORAL_WORKER_ASYNC_BANK} can be compared.
+ * <p>
+ * {@code --target=test} (default) runs an in-process worker, configured like {@link AccountTransferWorker}, against
+ * the in-memory test server. {@code --target=local} starts transfers on the server from {@code TEMPORAL_ADDRESS}
+ * (default {@code localhost:7233}) for separately started workers; add {@code --worker} to also run one here.
+ *
+ * <pre>
+ * ./gradlew loadGenerator -Parg="--rate=50 --duration=30"
+ * ./gradlew loadGenerator -Parg="--rate=200 --duration=60 --mix=HAPPY_PATH:90,INVALID_ACCOUNT:10 --target=local"
+ * ./gradlew loadGenerator -Parg="--rate=2000 --duration=1 --profile=demo" -PvirtualThreads
+ * </pre>
+ */
+public class TransferLoadGenerator {
+
+    private static final String TEST_TASK_QUEUE = "LoadGeneratorTaskQueue";
+    private static final long MAX_LATENCY_MILLIS = TimeUnit.HOURS.toMillis(1);
+    private static final long APPROVAL_POLL_MILLIS = 100;
+
+    // mirrors the web UI's scenarios; the workflow bug scenario never completes until fixed, so it can't be measured
+    enum Scenario {
+        HAPPY_PATH("AccountTransferWorkflow"),
+        ADVANCED_VISIBILITY("AccountTransferWorkflowAdvancedVisibility"),
+        HUMAN_IN_LOOP("AccountTransferWorkflowHumanInLoop"),
+        API_DOWNTIME("AccountTransferWorkflowAPIDowntime"),
+        INVALID_ACCOUNT("AccountTransferWorkflowInvalidAccount");
+
+        private final String workflowType;
+
+        Scenario(String workflowType) {
+            this.workflowType = workflowType;
+        }
+    }
+
+    private static class Results {
+        private final Recorder latency = new Recorder(MAX_LATENCY_MILLIS, 3);
+        private final AtomicInteger completed = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        double rate = Double.parseDouble(options.getOrDefault("rate", "20"));
+        int durationSeconds = Integer.parseInt(options.getOrDefault("duration", "30"));
+        int drainSeconds = Integer.parseInt(options.getOrDefault("drain", "120"));
+        String profile = options.getOrDefault("profile", TransferInput.PROFILE_PRODUCTION);
+        boolean localActivities = options.containsKey("localActivities");
+        String target = options.getOrDefault("target", "test");
+        Map<Scenario, Integer> mix = parseMix(options.getOrDefault("mix", "HAPPY_PATH:100"));
+        long seed = Long.parseLong(options.getOrDefault("seed", "42"));
+
+        InFlightActivities activities = null;
+        TestWorkflowEnvironment testEnv = null;
+        WorkerFactory factory = null;
+        WorkflowClient client;
+        String taskQueue;
+        if ("test".equals(target)) {
+            activities = new InFlightActivities();
+            testEnv = TestWorkflowEnvironment.newInstance(
+                    TestEnvironmentOptions.newBuilder()
+                            .setWorkerFactoryOptions(countingFactoryOptions(activities))
+                            .build()
+            );
+            testEnv.registerSearchAttribute("Step", IndexedValueType.INDEXED_VALUE_TYPE_KEYWORD);
+            client = testEnv.getWorkflowClient();
+            taskQueue = TEST_TASK_QUEUE;
+            Worker worker = testEnv.newWorker(taskQueue, AccountTransferWorker.getWorkerOptions());
+            AccountTransferWorker.register(worker, client);
+            testEnv.start();
+        } else if ("local".equals(target)) {
+            client = TemporalClient.get();
+            taskQueue = ServerInfo.getTaskqueue();
+            if (options.containsKey("worker")) {
+                activities = new InFlightActivities();
+                factory = WorkerFactory.newInstance(client, countingFactoryOptions(activities));
+                Worker worker = factory.newWorker(taskQueue, AccountTransferWorker.getWorkerOptions());
+                AccountTransferWorker.register(worker, client);
+                factory.start();
+            }
+        } else {
+            throw new IllegalArgumentException("--target must be test or local");
+        }
+
+        Map<Scenario, Results> results = new EnumMap<>(Scenario.class);
+        for (Scenario scenario : mix.keySet()) {
+            results.put(scenario, new Results());
+        }
+
+        // starts block on a gRPC call, so they run off the pacing thread to keep arrivals on schedule
+        ExecutorService starters = Executors.newFixedThreadPool(Math.max(4, (int) Math.ceil(rate / 50)));
+        ScheduledExecutorService approvers = Executors.newSingleThreadScheduledExecutor();
+        int transfers = (int) Math.round(rate * durationSeconds);
+        long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / rate);
+        CountDownLatch done = new CountDownLatch(transfers);
+        AtomicInteger startFailures = new AtomicInteger();
+        Random random = new Random(seed);
+        String runId = Long.toString(System.currentTimeMillis(), 36);
+
+        System.out.printf(
+                "Target %s, %.1f transfers/s for %ds (%d transfers), profile %s, local activities %s, mix %s%n",
+                target,
+                rate,
+                durationSeconds,
+                transfers,
+                profile,
+                localActivities,
+                mix
+        );
+
+        long start = System.nanoTime();
+        for (int i = 0; i < transfers; i++) {
+            long scheduledStart = start + i * intervalNanos;
+            long wait;
+            while ((wait = scheduledStart - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+
+            Scenario scenario = pick(mix, random);
+            Results result = results.get(scenario);
+            String workflowId = "load-" + runId + "-" + i;
+            TransferInput input = new TransferInput(100, "account" + i, "account" + (i + 1), profile, localActivities);
+            starters.execute(() -> {
+                try {
+                    WorkflowStub stub = client.newUntypedWorkflowStub(
+                            scenario.workflowType,
+                            WorkflowOptions.newBuilder().setTaskQueue(taskQueue).setWorkflowId(workflowId).build()
+                    );
+                    stub.start(input);
+                    if (scenario == Scenario.HUMAN_IN_LOOP) {
+                        approveWhenWaiting(stub, approvers);
+                    }
+                    stub.getResultAsync(TransferOutput.class).whenComplete((output, failure) -> {
+                        long latencyMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - scheduledStart);
+                        result.latency.recordValue(Math.min(latencyMillis, MAX_LATENCY_MILLIS));
+                        if (failure == null) {
+                            result.completed.incrementAndGet();
+                        } else {
+                            result.failed.incrementAndGet();
+                        }
+                        done.countDown();
+                    });
+                } catch (RuntimeException e) {
+                    startFailures.incrementAndGet();
+                    done.countDown();
+                }
+            });
+        }
+        long arrivalNanos = System.nanoTime() - start;
+
+        boolean drained = done.await(drainSeconds, TimeUnit.SECONDS);
+        long elapsedNanos = System.nanoTime() - start;
+
+        report(
+                results,
+                transfers,
+                arrivalNanos,
+                elapsedNanos,
+                startFailures.get(),
+                drained ? 0 : done.getCount(),
+                activities
+        );
+
+        starters.shutdownNow();
+        approvers.shutdownNow();
+        if (factory != null) {
+            factory.shutdownNow();
+        }
+        if (testEnv != null) {
+            testEnv.close();
+        }
+        // the client's async throttler thread is not a daemon, don't wait on it
+        System.exit(0);
+    }
+
+    private static void report(
+            Map<Scenario, Results> results,
+            int transfers,
+            long arrivalNanos,
+            long elapsedNanos,
+            int startFailures,
+            long unfinished,
+            InFlightActivities activities
+    ) {
+        Histogram all = new Histogram(MAX_LATENCY_MILLIS, 3);
+        int completed = 0;
+        int failed = 0;
+
+        System.out.printf(
+                "%n%-20s %8s %8s %10s %10s %10s %10s%n",
+                "Scenario",
+                "Done",
+                "Failed",
+                "p50 ms",
+                "p99 ms",
+                "p99.9 ms",
+                "max ms"
+        );
+        for (Map.Entry<Scenario, Results> entry : results.entrySet()) {
+            Histogram histogram = entry.getValue().latency.getIntervalHistogram();
+            all.add(histogram);
+            completed += entry.getValue().completed.get();
+            failed += entry.getValue().failed.get();
+            printRow(entry.getKey().name(), entry.getValue().completed.get(), entry.getValue().failed.get(), histogram);
+        }
+        printRow("ALL", completed, failed, all);
+
+        int finished = completed + failed;
+        double seconds = elapsedNanos / 1e9;
+        System.out.printf("%nOffered rate:      %.1f starts/s%n", transfers / (arrivalNanos / 1e9));
+        System.out.printf("Completions/sec:   %.1f (%d in %.1fs)%n", finished / seconds, finished, seconds);
+        System.out.println("Start failures:    " + startFailures);
+        System.out.println("Unfinished:        " + unfinished);
+        System.out.println("Virtual threads:   " + ServerInfo.isVirtualThreads());
+        System.out.println("Async bank:        " + ServerInfo.isAsyncBank());
+        if (activities != null) {
+            System.out.println("Peak activities:   " + activities.peak.get());
+        }
+        System.out.println("Peak threads:      " + ManagementFactory.getThreadMXBean().getPeakThreadCount());
+    }
+
+    // the worker's own factory options, plus the in-flight activity counter
+    private static WorkerFactoryOptions countingFactoryOptions(InFlightActivities activities) {
+        WorkerFactoryOptions options = AccountTransferWorker.getWorkerFactoryOptions();
+        WorkerInterceptor[] interceptors = Arrays.copyOf(
+                options.getWorkerInterceptors(),
+                options.getWorkerInterceptors().length + 1
+        );
+        interceptors[interceptors.length - 1] = activities;
+        return WorkerFactoryOptions.newBuilder(options).setWorkerInterceptors(interceptors).build();
+    }
+
+    private static void printRow(String name, int completed, int failed, Histogram histogram) {
+        System.out.printf(
+                "%-20s %8d %8d %10d %10d %10d %10d%n",
+                name,
+                completed,
+                failed,
+                histogram.getValueAtPercentile(50),
+                histogram.getValueAtPercentile(99),
+                histogram.getValueAtPercentile(99.9),
+                histogram.getMaxValue()
+        );
+    }
+
+    // approves as soon as the transfer waits for it, so the run measures the worker rather than a person
+    private static void approveWhenWaiting(WorkflowStub stub, ScheduledExecutorService approvers) {
+        approvers.schedule(() -> {
+            try {
+                if ("waiting".equals(stub.query("transferStatus", TransferStatus.class).getTransferState())) {
+                    stub.signal("approveTransfer");
+                } else {
+                    approveWhenWaiting(stub, approvers);
+                }
+            } catch (RuntimeException e) {
+                // the transfer already finished or failed, its result reports that
+            }
+        }, APPROVAL_POLL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    private static Scenario pick(Map<Scenario, Integer> mix, Random random) {
+        int total = 0;
+        for (int weight : mix.values()) {
+            total += weight;
+        }
+        int ticket = random.nextInt(total);
+        for (Map.Entry<Scenario, Integer> entry : mix.entrySet()) {
+            ticket -= entry.getValue();
+            if (ticket < 0) {
+                return entry.getKey();
+            }
+        }
+        throw new IllegalStateException("Unreachable");
+    }
+
+    // --key=value, or --key for a flag
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (arg.isEmpty()) {
+                continue;
+            }
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Expected --key=value, got " + arg);
+            }
+            int equals = arg.indexOf('=');
+            if (equals < 0) {
+                options.put(arg.substring(2), "true");
+            } else {
+                options.put(arg.substring(2, equals), arg.substring(equals + 1));
+            }
+        }
+        return options;
+    }
+
+    // HAPPY_PATH:80,INVALID_ACCOUNT:20, a scenario without a weight counts 1
+    private static Map<Scenario, Integer> parseMix(String mix) {
+        Map<Scenario, Integer> weights = new EnumMap<>(Scenario.class);
+        for (String part : mix.split(",")) {
+            String[] scenarioAndWeight = part.trim().split(":");
+            Scenario scenario = Scenario.valueOf(scenarioAndWeight[0].trim().toUpperCase());
+            int weight = scenarioAndWeight.length > 1 ? Integer.parseInt(scenarioAndWeight[1].trim()) : 1;
+            if (weight > 0) {
+                weights.merge(scenario, weight, Integer::sum);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("--mix needs at least one scenario with a positive weight");
+        }
+        return weights;
+    }
+
+    // counts the activity methods running at the same time; an async bank activity counts until it hands off
+    private static class InFlightActivities extends WorkerInterceptorBase {
+
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicInteger peak = new AtomicInteger();
+
+        @Override
+        public ActivityInboundCallsInterceptor interceptActivity(ActivityInboundCallsInterceptor next) {
+            return new ActivityInboundCallsInterceptorBase(next) {
+                @Override
+                public ActivityOutput execute(ActivityInput input) {
+                    peak.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                    try {
+                        return super.execute(input);
+                    } finally {
+                        inFlight.decrementAndGet();
+                    }
+                }
+            };
+        }
+    }
+}
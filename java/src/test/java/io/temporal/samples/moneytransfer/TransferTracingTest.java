@@ -0,0 +1,91 @@
+package io.temporal.samples.moneytransfer;
+
+import io.opentracing.mock.MockSpan;
+import io.opentracing.mock.MockTracer;
+import io.temporal.client.WorkflowClientOptions;
+import io.temporal.client.WorkflowOptions;
+import io.temporal.opentracing.OpenTracingClientInterceptor;
+import io.temporal.opentracing.OpenTracingOptions;
+import io.temporal.opentracing.OpenTracingWorkerInterceptor;
+import io.temporal.samples.moneytransfer.activities.AccountTransferActivitiesImpl;
+import io.temporal.samples.moneytransfer.model.TransferInput;
+import io.temporal.samples.moneytransfer.util.TimerTracingInterceptor;
+import io.temporal.samples.moneytransfer.workflows.AccountTransferWorkflow;
+import io.temporal.samples.moneytransfer.workflows.AccountTransferWorkflowImpl;
+import io.temporal.testing.TestWorkflowRule;
+import io.temporal.worker.WorkerFactoryOptions;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TransferTracingTest {
+
+    private final MockTracer tracer = new MockTracer();
+    private final OpenTracingOptions options = OpenTracingOptions.newBuilder().setTracer(tracer).build();
+
+    @Rule
+    public TestWorkflowRule testWorkflowRule = TestWorkflowRule.newBuilder()
+            .setWorkflowTypes(AccountTransferWorkflowImpl.class)
+            .setActivityImplementations(new AccountTransferActivitiesImpl())
+            .setWorkflowClientOptions(
+                    WorkflowClientOptions.newBuilder()
+                            .setInterceptors(new OpenTracingClientInterceptor(options))
+                            .build()
+            )
+            .setWorkerFactoryOptions(
+                    WorkerFactoryOptions.newBuilder()
+                            .setWorkerInterceptors(
+                                    new OpenTracingWorkerInterceptor(options),
+                                    new TimerTracingInterceptor(tracer)
+                            )
+                            .build()
+            )
+            .build();
+
+    /**
+     * A transfer's activities and progress timers are all spans of the trace started by the client
+     */
+    @Test
+    public void testSpansPerStep() {
+        AccountTransferWorkflow workflow = testWorkflowRule
+                .getWorkflowClient()
+                .newWorkflowStub(
+                        AccountTransferWorkflow.class,
+                        WorkflowOptions.newBuilder().setTaskQueue(testWorkflowRule.getTaskQueue()).build()
+                );
+        workflow.transfer(new TransferInput(100, "account1", "account2"));
+
+        List<MockSpan> spans = tracer.finishedSpans();
+        Set<String> names = spans.stream().map(MockSpan::operationName).collect(Collectors.toSet());
+        assertTrue(names.containsAll(Set.of(
+                "StartWorkflow:AccountTransferWorkflow",
+                "RunWorkflow:AccountTransferWorkflow",
+                "RunActivity:Validate",
+                "RunActivity:Withdraw",
+                "RunActivity:Deposit",
+                "RunActivity:SendNotification",
+                "Sleep"
+        )));
+        assertEquals(1, spans.stream().map(span -> span.context().traceId()).distinct().count());
+
+        // the demo profile paces the transfer with a timer after every step
+        MockSpan run = spans.stream()
+                .filter(span -> span.operationName().startsWith("RunWorkflow"))
+                .findFirst()
+                .orElseThrow();
+        List<MockSpan> sleeps = spans.stream()
+                .filter(span -> span.operationName().equals("Sleep"))
+                .collect(Collectors.toList());
+        assertTrue(sleeps.size() >= 4);
+        for (MockSpan sleep : sleeps) {
+            assertEquals(run.context().spanId(), sleep.parentId());
+            assertTrue(sleep.finishMicros() > sleep.startMicros());
+        }
+    }
+}
@@ -1,21 +1,27 @@
 package io.temporal.samples.moneytransfer;
 
+import io.temporal.api.history.v1.HistoryEvent;
 import io.temporal.client.WorkflowOptions;
 import io.temporal.client.WorkflowStub;
 import io.temporal.samples.moneytransfer.activities.AccountTransferActivities;
+import io.temporal.samples.moneytransfer.activities.AccountTransferActivitiesAsyncImpl;
 import io.temporal.samples.moneytransfer.activities.AccountTransferActivitiesImpl;
+import io.temporal.samples.moneytransfer.activities.SimulatedBank;
 import io.temporal.samples.moneytransfer.model.DepositResponse;
 import io.temporal.samples.moneytransfer.model.TransferInput;
 import io.temporal.samples.moneytransfer.model.TransferOutput;
 import io.temporal.samples.moneytransfer.workflows.AccountTransferWorkflow;
 import io.temporal.samples.moneytransfer.workflows.AccountTransferWorkflowImpl;
 import io.temporal.samples.moneytransfer.workflows.AccountTransferWorkflowScenarios;
+import io.temporal.testing.TestWorkflowEnvironment;
 import io.temporal.testing.TestWorkflowRule;
+import io.temporal.worker.Worker;
 import org.junit.After;
 import org.junit.Rule;
 import org.junit.Test;
 
 import java.time.Duration;
+import java.util.List;
 
 import static org.junit.Assert.assertEquals;
 import static org.mockito.Mockito.*;
@@ -59,6 +65,101 @@ public class TransferWorkflowTest {
         );
     }
 
+    /**
+     * Test workflow with the production profile, which runs the steps without progress timers
+     */
+    @Test
+    public void testWorkflowProductionProfile() {
+        testWorkflowRule.getWorker().registerActivitiesImplementations(new AccountTransferActivitiesImpl());
+        testWorkflowRule.getTestEnvironment().start();
+
+        AccountTransferWorkflow workflow = testWorkflowRule
+                .getWorkflowClient()
+                .newWorkflowStub(
+                        AccountTransferWorkflow.class,
+                        WorkflowOptions.newBuilder()
+                                .setWorkflowId("ProductionProfileWorkflow")
+                                .setTaskQueue(testWorkflowRule.getTaskQueue())
+                                .build()
+                );
+        TransferInput transferInput = new TransferInput(100, "account1", "account2", TransferInput.PROFILE_PRODUCTION);
+
+        TransferOutput result = workflow.transfer(transferInput);
+        assertEquals("example-transfer-id", result.getDepositResponse().getDepositId());
+
+        List<HistoryEvent> events = testWorkflowRule
+                .getWorkflowClient()
+                .fetchHistory("ProductionProfileWorkflow")
+                .getEvents();
+        assertEquals(0, events.stream().filter(HistoryEvent::hasTimerStartedEventAttributes).count());
+    }
+
+    /**
+     * Test workflow with withdraw and deposit completed asynchronously by the simulated bank
+     */
+    @Test
+    public void testWorkflowAsyncBank() {
+        SimulatedBank bank = new SimulatedBank(testWorkflowRule.getWorkflowClient().newActivityCompletionClient());
+        testWorkflowRule.getWorker().registerActivitiesImplementations(new AccountTransferActivitiesAsyncImpl(bank));
+        testWorkflowRule.getTestEnvironment().start();
+
+        AccountTransferWorkflow workflow = testWorkflowRule
+                .getWorkflowClient()
+                .newWorkflowStub(
+                        AccountTransferWorkflow.class,
+                        WorkflowOptions.newBuilder().setTaskQueue(testWorkflowRule.getTaskQueue()).build()
+                );
+        TransferInput transferInput = new TransferInput();
+        transferInput.setAmount(100);
+        transferInput.setFromAccount("account1");
+        transferInput.setToAccount("account2");
+
+        TransferOutput result = workflow.transfer(transferInput);
+        assertEquals("example-transfer-id", result.getDepositResponse().getDepositId());
+
+        bank.shutdown();
+    }
+
+    /**
+     * Test workflow whose input asks for validate as a local activity, which records a marker instead of scheduling a
+     * task
+     */
+    @Test
+    public void testWorkflowLocalValidation() {
+        TestWorkflowEnvironment testEnv = TestWorkflowEnvironment.newInstance();
+        Worker worker = testEnv.newWorker("LocalValidationTaskQueue");
+        worker.registerWorkflowImplementationTypes(AccountTransferWorkflowImpl.class);
+        worker.registerActivitiesImplementations(new AccountTransferActivitiesImpl());
+        testEnv.start();
+
+        AccountTransferWorkflow workflow = testEnv
+                .getWorkflowClient()
+                .newWorkflowStub(
+                        AccountTransferWorkflow.class,
+                        WorkflowOptions.newBuilder()
+                                .setWorkflowId("LocalValidationWorkflow")
+                                .setTaskQueue("LocalValidationTaskQueue")
+                                .build()
+                );
+        TransferInput transferInput = new TransferInput();
+        transferInput.setAmount(100);
+        transferInput.setFromAccount("account1");
+        transferInput.setToAccount("account2");
+        transferInput.setLocalActivities(true);
+
+        TransferOutput result = workflow.transfer(transferInput);
+        assertEquals("example-transfer-id", result.getDepositResponse().getDepositId());
+
+        List<HistoryEvent> events = testEnv
+                .getWorkflowClient()
+                .fetchHistory("LocalValidationWorkflow")
+                .getEvents();
+        assertEquals(3, events.stream().filter(HistoryEvent::hasActivityTaskScheduledEventAttributes).count());
+        assertEquals(1, events.stream().filter(HistoryEvent::hasMarkerRecordedEventAttributes).count());
+
+        testEnv.close();
+    }
+
     /**
      * Test human in the loop scenario
      */
@@ -0,0 +1,70 @@
+package io.temporal.samples.moneytransfer.util;
+
+import com.google.protobuf.ByteString;
+import io.temporal.api.common.v1.Payload;
+import io.temporal.common.converter.EncodingKeys;
+import io.temporal.payload.codec.ChainCodec;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class CompressionCodecTest {
+
+    private final CompressionCodec codec = new CompressionCodec(64);
+
+    /**
+     * Payloads above the threshold are compressed and decode back to the original
+     */
+    @Test
+    public void testRoundTrip() {
+        Payload payload = payload("{\"amount\":100,\"fromAccount\":\"account1\",\"toAccount\":\"account2\"}".repeat(50));
+
+        Payload encoded = codec.encode(List.of(payload)).get(0);
+
+        assertEquals(CompressionCodec.METADATA_ENCODING, encoded.getMetadataOrThrow(EncodingKeys.METADATA_ENCODING_KEY));
+        assertTrue(encoded.getSerializedSize() < payload.getSerializedSize());
+        assertEquals(List.of(payload), codec.decode(List.of(encoded)));
+    }
+
+    /**
+     * Small or incompressible payloads are passed through untouched
+     */
+    @Test
+    public void testPassThrough() {
+        byte[] random = new byte[4096];
+        new Random(42).nextBytes(random);
+        List<Payload> payloads = Arrays.asList(
+                payload("{\"amount\":100}"),
+                Payload.newBuilder().setData(ByteString.copyFrom(random)).build()
+        );
+
+        assertEquals(payloads, codec.encode(payloads));
+    }
+
+    /**
+     * Compression stacked after encryption in the codec list compresses the plain payload, then encrypts it
+     */
+    @Test
+    public void testChainedWithEncryption() {
+        ChainCodec chain = new ChainCodec(Arrays.asList(new CryptCodec(), codec));
+        List<Payload> payloads = List.of(payload("{\"chargeId\":\"example-transfer-id\"}".repeat(100)));
+
+        Payload encoded = chain.encode(payloads).get(0);
+        assertEquals(CryptCodec.METADATA_ENCODING, encoded.getMetadataOrThrow(EncodingKeys.METADATA_ENCODING_KEY));
+        assertTrue(encoded.getSerializedSize() < payloads.get(0).getSerializedSize());
+
+        assertEquals(payloads, chain.decode(List.of(encoded)));
+    }
+
+    private static Payload payload(String json) {
+        return Payload.newBuilder()
+                .putMetadata(EncodingKeys.METADATA_ENCODING_KEY, ByteString.copyFromUtf8("json/plain"))
+                .setData(ByteString.copyFromUtf8(json))
+                .build();
+    }
+}
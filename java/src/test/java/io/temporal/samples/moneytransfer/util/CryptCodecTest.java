@@ -0,0 +1,109 @@
+package io.temporal.samples.moneytransfer.util;
+
+import com.google.protobuf.ByteString;
+import io.temporal.api.common.v1.Payload;
+import io.temporal.common.converter.EncodingKeys;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class CryptCodecTest {
+
+    private final CryptCodec codec = new CryptCodec();
+
+    /**
+     * Encrypted payloads decode back to the original payloads
+     */
+    @Test
+    public void testRoundTrip() {
+        // the last payload is larger than the pooled per-thread buffer
+        List<Payload> payloads = Arrays.asList(
+                payload("{\"amount\":100}"),
+                payload(""),
+                payload("x".repeat(100_000)),
+                payload("x".repeat(300_000))
+        );
+
+        List<Payload> encoded = codec.encode(payloads);
+        assertEquals(payloads.size(), encoded.size());
+        for (int i = 0; i < payloads.size(); i++) {
+            assertEquals(CryptCodec.METADATA_ENCODING, encoded.get(i).getMetadataOrThrow(EncodingKeys.METADATA_ENCODING_KEY));
+            assertNotEquals(payloads.get(i).getData(), encoded.get(i).getData());
+        }
+
+        assertEquals(payloads, codec.decode(encoded));
+    }
+
+    /**
+     * A payload larger than the pooled buffers is encrypted through a one-off buffer and decodes back
+     */
+    @Test
+    public void testPayloadLargerThanPooledBuffers() {
+        List<Payload> payloads = List.of(payload("x".repeat(CryptCodec.MAX_POOLED_BUFFER_BYTES + 1024)));
+
+        assertEquals(payloads, codec.decode(codec.encode(payloads)));
+    }
+
+    /**
+     * Short-lived threads, like virtual threads running one activity each, share the bounded buffer pool instead of
+     * each keeping a direct buffer of their own
+     */
+    @Test
+    public void testShortLivedThreadsShareBoundedPool() throws InterruptedException {
+        List<Payload> payloads = List.of(payload("{\"amount\":100}"), payload("x".repeat(100_000)));
+        AtomicInteger roundTrips = new AtomicInteger();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            Thread thread = new Thread(() -> {
+                if (payloads.equals(codec.decode(codec.encode(payloads)))) {
+                    roundTrips.incrementAndGet();
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(200, roundTrips.get());
+        assertTrue(CryptCodec.pooledBuffers() <= CryptCodec.BUFFER_POOL_SIZE);
+    }
+
+    /**
+     * Every payload gets a fresh nonce, so equal payloads encrypt differently
+     */
+    @Test
+    public void testNonceIsNotReused() {
+        Payload payload = payload("{\"amount\":100}");
+
+        Payload first = codec.encode(List.of(payload)).get(0);
+        Payload second = codec.encode(List.of(payload)).get(0);
+
+        assertNotEquals(first.getData(), second.getData());
+    }
+
+    /**
+     * Payloads without the encrypted encoding pass through untouched
+     */
+    @Test
+    public void testDecodePassesThroughPlainPayloads() {
+        List<Payload> payloads = List.of(payload("{\"amount\":100}"));
+
+        assertEquals(payloads, codec.decode(payloads));
+    }
+
+    private static Payload payload(String json) {
+        return Payload.newBuilder()
+                .putMetadata(EncodingKeys.METADATA_ENCODING_KEY, ByteString.copyFromUtf8("json/plain"))
+                .setData(ByteString.copyFromUtf8(json))
+                .build();
+    }
+}
@@ -0,0 +1,39 @@
+package io.temporal.samples.moneytransfer.util;
+
+import com.google.protobuf.ByteString;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.temporal.api.common.v1.Payload;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class MeteredCodecTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final MeteredCodec codec = new MeteredCodec(new CryptCodec(), "crypt", registry);
+
+    /**
+     * Encoding and decoding pass through to the wrapped codec and are counted per operation with their sizes
+     */
+    @Test
+    public void testRecordsPerOperation() {
+        Payload payload = Payload.newBuilder().setData(ByteString.copyFromUtf8("{\"amount\":100}")).build();
+
+        List<Payload> encoded = codec.encode(List.of(payload, payload));
+        assertEquals(List.of(payload, payload), codec.decode(encoded));
+
+        assertEquals(1, registry.get("transfer.codec").tag("operation", "encode").timer().count());
+        assertEquals(1, registry.get("transfer.codec").tag("operation", "decode").timer().count());
+        assertEquals(
+                2.0 * payload.getSerializedSize(),
+                registry.get("transfer.codec.input").tag("operation", "encode").summary().totalAmount(),
+                0
+        );
+        // encryption adds a nonce, a tag and metadata to every payload
+        assertTrue(registry.get("transfer.codec.output").tag("operation", "encode").summary().totalAmount()
+                > 2.0 * payload.getSerializedSize());
+    }
+}
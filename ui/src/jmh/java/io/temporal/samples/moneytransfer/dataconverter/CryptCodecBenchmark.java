@@ -0,0 +1,87 @@
+package io.temporal.samples.moneytransfer.dataconverter;
+
+import com.google.protobuf.ByteString;
+import io.temporal.api.common.v1.Payload;
+import io.temporal.common.converter.EncodingKeys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Payloads/sec through the web server's {@link CryptCodec}, which encrypts workflow inputs on start and decrypts every
+ * query result. The {@code batch} benchmarks decode 256 payloads in one call, the size of a codec endpoint request for
+ * a long history, on the calling thread and through a {@link ParallelCodec}.
+ *
+ * <pre>./gradlew jmh -PjmhIncludes=CryptCodecBenchmark</pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CryptCodecBenchmark {
+
+    private static final int BATCH_SIZE = 256;
+
+    @Param({"256", "4096", "65536"})
+    public int payloadSize;
+
+    private CryptCodec codec;
+    private ParallelCodec parallelCodec;
+    private List<Payload> plain;
+    private List<Payload> encrypted;
+    private List<Payload> encryptedBatch;
+
+    @Setup
+    public void setUp() {
+        byte[] data = new byte[payloadSize];
+        new Random(42).nextBytes(data);
+        Payload payload = Payload.newBuilder()
+                .putMetadata(EncodingKeys.METADATA_ENCODING_KEY, ByteString.copyFromUtf8("json/plain"))
+                .setData(ByteString.copyFrom(data))
+                .build();
+
+        codec = new CryptCodec();
+        parallelCodec = new ParallelCodec(List.of(codec), 32, Runtime.getRuntime().availableProcessors());
+        plain = Collections.singletonList(payload);
+        encrypted = codec.encode(plain);
+        encryptedBatch = codec.encode(Collections.nCopies(BATCH_SIZE, payload));
+    }
+
+    @Benchmark
+    public List<Payload> encode() {
+        return codec.encode(plain);
+    }
+
+    @Benchmark
+    public List<Payload> decode() {
+        return codec.decode(encrypted);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public List<Payload> decodeBatch() {
+        return codec.decode(encryptedBatch);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public List<Payload> decodeBatchParallel() {
+        return parallelCodec.decode(encryptedBatch);
+    }
+}
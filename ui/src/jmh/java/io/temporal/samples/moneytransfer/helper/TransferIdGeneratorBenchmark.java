@@ -0,0 +1,48 @@
+package io.temporal.samples.moneytransfer.helper;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Nanoseconds per transfer ID from {@link TransferIdGenerator}, from one thread and from four threads contending on
+ * the same sequence, plus decoding an ID's timestamp.
+ *
+ * <pre>./gradlew jmh -PjmhIncludes=TransferIdGeneratorBenchmark</pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransferIdGeneratorBenchmark {
+
+    private final String transferId = TransferIdGenerator.nextTransferId();
+
+    @Benchmark
+    public String nextTransferId() {
+        return TransferIdGenerator.nextTransferId();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String nextTransferIdContended() {
+        return TransferIdGenerator.nextTransferId();
+    }
+
+    @Benchmark
+    public Instant timestampOf() {
+        return TransferIdGenerator.timestampOf(transferId);
+    }
+}
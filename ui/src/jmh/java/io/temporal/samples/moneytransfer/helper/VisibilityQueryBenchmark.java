@@ -0,0 +1,76 @@
+package io.temporal.samples.moneytransfer.helper;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.text.SimpleDateFormat;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Nanoseconds per visibility query string. {@code builder} is the query {@code /listWorkflows} sends today;
+ * {@code legacy} repeats the original per-call {@code java.sql.Timestamp} and {@code SimpleDateFormat} formatting and
+ * string concatenation so both numbers come from the same run. Allocation is reported by the gc profiler as
+ * {@code gc.alloc.rate.norm}.
+ *
+ * <pre>./gradlew jmh -PjmhIncludes=VisibilityQueryBenchmark</pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class VisibilityQueryBenchmark {
+
+    private Instant from;
+    private Instant to;
+
+    @Setup
+    public void setUp() {
+        to = Instant.parse("2024-06-01T12:00:00.123456789Z");
+        from = to.minusSeconds(3600);
+    }
+
+    @Benchmark
+    public String builder() {
+        return new VisibilityQuery()
+                .startsWith("WorkflowType", "AccountTransferWorkflow")
+                .between("StartTime", from, to)
+                .build();
+    }
+
+    @Benchmark
+    public String format() {
+        return VisibilityTime.format(to);
+    }
+
+    @Benchmark
+    public String legacy() {
+        return "WorkflowType STARTS_WITH 'AccountTransferWorkflow'" +
+                "AND StartTime BETWEEN '" +
+                legacyFormat(from) +
+                "'" +
+                " AND '" +
+                legacyFormat(to) +
+                "'";
+    }
+
+    @Benchmark
+    public String legacyFormat() {
+        return legacyFormat(to);
+    }
+
+    private static String legacyFormat(Instant instant) {
+        java.sql.Timestamp javaTimestamp = new java.sql.Timestamp(instant.getEpochSecond() * 1000);
+        return new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSSXXX").format(javaTimestamp);
+    }
+}
@@ -0,0 +1,149 @@
+package io.temporal.samples.moneytransfer;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import io.temporal.samples.moneytransfer.helper.ServerInfo;
+import io.temporal.samples.moneytransfer.model.ExecutionScenario;
+import io.temporal.samples.moneytransfer.model.UXParameters;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static io.temporal.samples.moneytransfer.TransferRequester.runWorkflow;
+import static io.temporal.samples.moneytransfer.web.WebServer.MAPPER;
+
+/**
+ * Starts one transfer workflow per {@link UXParameters} read from a JSON array or NDJSON stream. At most
+ * {@code parallelism} starts are in flight; the body is not read any further until one of them finishes, so a large
+ * upload is throttled by the rate workflows can be started. Each result is written as one NDJSON line as soon as it is
+ * known, followed by a summary line.
+ */
+public class BulkTransferRequester {
+
+    // totals across all bulk requests since the server started
+    private static final AtomicLong totalStarted = new AtomicLong();
+    private static final AtomicLong totalFailed = new AtomicLong();
+    private static final AtomicLong totalStartMillis = new AtomicLong();
+
+    private static volatile ExecutorService starters;
+
+    // starts one transfer and returns its ID
+    interface Starter {
+        String start(UXParameters uxParameters) throws Exception;
+    }
+
+    public static void runBulk(InputStream body, OutputStream out) throws IOException, InterruptedException {
+        runBulk(body, out, BulkTransferRequester::startTransfer);
+    }
+
+    static void runBulk(InputStream body, OutputStream out, Starter starter) throws IOException, InterruptedException {
+        int parallelism = ServerInfo.getBulkParallelism();
+        Semaphore inFlight = new Semaphore(parallelism);
+        AtomicInteger started = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        long start = System.nanoTime();
+
+        int submitted = 0;
+        try (MappingIterator<UXParameters> items = MAPPER.readerFor(UXParameters.class).readValues(body)) {
+            while (items.hasNextValue()) {
+                UXParameters uxParameters = items.nextValue();
+                int index = submitted++;
+
+                inFlight.acquire();
+                getStarters().execute(() -> {
+                    long startMillis = System.currentTimeMillis();
+                    Map<String, Object> line = new LinkedHashMap<>();
+                    line.put("index", index);
+                    try {
+                        line.put("transferId", starter.start(uxParameters));
+                        started.incrementAndGet();
+                        totalStarted.incrementAndGet();
+                    } catch (Exception e) {
+                        line.put("error", e.toString());
+                        failed.incrementAndGet();
+                        totalFailed.incrementAndGet();
+                    } finally {
+                        totalStartMillis.addAndGet(System.currentTimeMillis() - startMillis);
+                        try {
+                            writeLine(out, line);
+                        } finally {
+                            inFlight.release();
+                        }
+                    }
+                });
+            }
+        } catch (IOException e) {
+            // a malformed item ends the stream, transfers already submitted still finish and are reported
+            Map<String, Object> line = new LinkedHashMap<>();
+            line.put("index", submitted);
+            line.put("error", "Malformed input: " + e.getMessage());
+            writeLine(out, line);
+        }
+
+        // wait for the starts still in flight
+        inFlight.acquire(parallelism);
+        inFlight.release(parallelism);
+
+        long elapsedMillis = Math.max((System.nanoTime() - start) / 1_000_000, 1);
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("submitted", submitted);
+        summary.put("started", started.get());
+        summary.put("failed", failed.get());
+        summary.put("elapsedMillis", elapsedMillis);
+        summary.put("startsPerSecond", started.get() * 1000.0 / elapsedMillis);
+        writeLine(out, Map.of("summary", summary));
+    }
+
+    private static String startTransfer(UXParameters uxParameters) throws Exception {
+        ExecutionScenario scenario = uxParameters.getScenario() != null
+                ? uxParameters.getScenario()
+                : ExecutionScenario.HAPPY_PATH;
+        return runWorkflow(uxParameters.toTransferInput(), scenario);
+    }
+
+    public static Map<String, Object> getBulkMetrics() {
+        long done = totalStarted.get() + totalFailed.get();
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("started", totalStarted.get());
+        metrics.put("failed", totalFailed.get());
+        metrics.put("averageStartMillis", done > 0 ? (double) totalStartMillis.get() / done : 0);
+        metrics.put("parallelism", ServerInfo.getBulkParallelism());
+        return metrics;
+    }
+
+    private static void writeLine(OutputStream out, Object line) {
+        try {
+            byte[] bytes = (MAPPER.writeValueAsString(line) + "\n").getBytes(StandardCharsets.UTF_8);
+            synchronized (out) {
+                out.write(bytes);
+                out.flush();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static ExecutorService getStarters() {
+        if (starters == null) {
+            synchronized (BulkTransferRequester.class) {
+                if (starters == null) {
+                    starters = Executors.newFixedThreadPool(ServerInfo.getBulkParallelism(), runnable -> {
+                        Thread thread = new Thread(runnable, "bulk-transfer-starter");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+                }
+            }
+        }
+        return starters;
+    }
+}
@@ -2,14 +2,22 @@ package io.temporal.samples.moneytransfer;
 
 import io.grpc.Metadata;
 import io.grpc.stub.MetadataUtils;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Timer;
 import io.temporal.client.WorkflowClient;
 import io.temporal.client.WorkflowClientOptions;
 import io.temporal.client.schedules.ScheduleClient;
 import io.temporal.client.schedules.ScheduleClientOptions;
 import io.temporal.common.converter.CodecDataConverter;
+import io.temporal.common.converter.DataConverter;
 import io.temporal.common.converter.DefaultDataConverter;
+import io.temporal.opentracing.OpenTracingClientInterceptor;
+import io.temporal.payload.codec.PayloadCodec;
+import io.temporal.samples.moneytransfer.dataconverter.CompressionCodec;
 import io.temporal.samples.moneytransfer.dataconverter.CryptCodec;
 import io.temporal.samples.moneytransfer.helper.ServerInfo;
+import io.temporal.samples.moneytransfer.helper.Tracing;
+import io.temporal.samples.moneytransfer.helper.WebMetrics;
 import io.temporal.serviceclient.SimpleSslContextBuilder;
 import io.temporal.serviceclient.WorkflowServiceStubs;
 import io.temporal.serviceclient.WorkflowServiceStubsOptions;
@@ -18,13 +26,50 @@ import javax.net.ssl.SSLException;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.InputStream;
-import java.util.Collections;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
+/*
+    Process-wide connection layer for the web server. Service stubs and clients are created lazily on first use and
+    shared by every request; all of them are thread-safe. TEMPORAL_CLIENT_POOL_SIZE spreads requests round-robin over
+    several gRPC channels, and a shutdown hook closes the channels when the JVM exits.
+ */
 public class TemporalClient {
 
+    private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(10);
+    private static final Duration SHUTDOWN_TIMEOUT = Duration.ofSeconds(5);
+
+    private static final AtomicInteger nextConnection = new AtomicInteger();
+    private static final AtomicInteger channelCount = new AtomicInteger();
+    private static final AtomicLong lastHandshakeMillis = new AtomicLong();
+    private static final AtomicLong totalHandshakeMillis = new AtomicLong();
+
+    // counts and times service stub creation, so a pool being rebuilt shows up next to slow requests
+    private static final Timer connectTimer = Timer.builder("transfer.client.connect")
+            .description("Service stub creation, including the gRPC handshake")
+            .register(WebMetrics.getRegistry());
+
+    static {
+        Gauge.builder("transfer.client.channels", channelCount, AtomicInteger::get)
+                .description("Open gRPC channels to the Temporal server")
+                .register(WebMetrics.getRegistry());
+    }
+
+    // built once, the codecs are stateless apart from per-thread buffers and are shared by every caller
+    private static final List<PayloadCodec> CODECS = createCodecs();
+
+    private static volatile Connection[] connections;
+    private static boolean shutdownHookRegistered = false;
+
     public static WorkflowServiceStubsOptions.Builder getWorkflowServiceStubsOptionsBuilder() throws FileNotFoundException, SSLException {
         WorkflowServiceStubsOptions.Builder workflowServiceStubsOptionsBuilder =
-                WorkflowServiceStubsOptions.newBuilder();
+                WorkflowServiceStubsOptions.newBuilder().setMetricsScope(WebMetrics.getScope());
 
         if (!ServerInfo.getApiKey().equals("")) {
             workflowServiceStubsOptionsBuilder
@@ -49,16 +94,7 @@ public class TemporalClient {
     }
 
     public static WorkflowServiceStubs getWorkflowServiceStubs() throws FileNotFoundException, SSLException {
-        WorkflowServiceStubs service = null;
-
-        if (!ServerInfo.getAddress().equals("localhost:7233")) {
-            // if not local server, then use the workflowServiceStubsOptionsBuilder
-            service = WorkflowServiceStubs.newServiceStubs(getWorkflowServiceStubsOptionsBuilder().build());
-        } else {
-            service = WorkflowServiceStubs.newLocalServiceStubs();
-        }
-
-        return service;
+        return nextConnection().service;
     }
 
     /*
@@ -66,73 +102,195 @@ public class TemporalClient {
         headers have to be manually added.
      */
     public static WorkflowServiceStubs getWorkflowServiceStubsWithHeaders() throws FileNotFoundException, SSLException {
-        WorkflowServiceStubsOptions.Builder workflowServiceStubsOptionsBuilder = getWorkflowServiceStubsOptionsBuilder();
+        return nextConnection().serviceWithHeaders;
+    }
 
-        if (!ServerInfo.getApiKey().isEmpty()) {
-            Metadata.Key<String> namespace = Metadata.Key.of("temporal-namespace", Metadata.ASCII_STRING_MARSHALLER);
+    public static WorkflowClient get() throws FileNotFoundException, SSLException {
+        return nextConnection().client;
+    }
 
-            Metadata metadata = new Metadata();
-            metadata.put(namespace, ServerInfo.getNamespace());
+    public static ScheduleClient getScheduleClient() throws FileNotFoundException, SSLException {
+        return nextConnection().scheduleClient;
+    }
 
-            workflowServiceStubsOptionsBuilder
-                    .setChannelInitializer(
-                            (channel) -> {
-                                channel.intercept(MetadataUtils.newAttachHeadersInterceptor(metadata));
-                            });
+    public static Map<String, Object> getConnectionMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("poolSize", ServerInfo.getClientPoolSize());
+        metrics.put("channelCount", channelCount.get());
+        metrics.put("lastHandshakeMillis", lastHandshakeMillis.get());
+        metrics.put("totalHandshakeMillis", totalHandshakeMillis.get());
+        return metrics;
+    }
+
+    public static synchronized void shutdown() {
+        Connection[] current = connections;
+        connections = null;
+        if (current == null) {
+            return;
+        }
+        for (Connection connection : current) {
+            connection.shutdown();
+        }
+    }
+
+    private static Connection nextConnection() throws FileNotFoundException, SSLException {
+        Connection[] current = connections;
+        if (current == null) {
+            current = initConnections();
         }
+        return current[Math.floorMod(nextConnection.getAndIncrement(), current.length)];
+    }
 
-        WorkflowServiceStubs service = null;
+    private static synchronized Connection[] initConnections() throws FileNotFoundException, SSLException {
+        if (connections != null) {
+            return connections;
+        }
 
-        if (!ServerInfo.getAddress().equals("localhost:7233")) {
-            // if not local server, then use the workflowServiceStubsOptionsBuilder
-            service = WorkflowServiceStubs.newServiceStubs(workflowServiceStubsOptionsBuilder.build());
-        } else {
-            service = WorkflowServiceStubs.newLocalServiceStubs();
+        System.out.println("<<<<SERVER INFO>>>>:\n " + ServerInfo.getServerInfo());
+
+        // build the options once so the mTLS certificates are only parsed a single time
+        WorkflowServiceStubsOptions options = getWorkflowServiceStubsOptionsBuilder().build();
+        WorkflowServiceStubsOptions optionsWithHeaders =
+                ServerInfo.getApiKey().isEmpty() ? null : withNamespaceHeader(options);
+
+        DataConverter dataConverter = getDataConverter();
+        Connection[] created = new Connection[ServerInfo.getClientPoolSize()];
+        try {
+            for (int i = 0; i < created.length; i++) {
+                WorkflowServiceStubs service = newServiceStubs(options);
+                WorkflowServiceStubs serviceWithHeaders =
+                        optionsWithHeaders == null ? service : newServiceStubs(optionsWithHeaders);
+                created[i] = new Connection(service, serviceWithHeaders, dataConverter);
+            }
+        } catch (RuntimeException e) {
+            for (Connection connection : created) {
+                if (connection != null) {
+                    connection.shutdown();
+                }
+            }
+            throw e;
         }
 
-        return service;
+        if (!shutdownHookRegistered) {
+            Runtime.getRuntime().addShutdownHook(new Thread(TemporalClient::shutdown, "temporal-client-shutdown"));
+            shutdownHookRegistered = true;
+        }
+        connections = created;
+        return created;
     }
 
-    public static WorkflowClient get() throws FileNotFoundException, SSLException {
-        WorkflowServiceStubs service = getWorkflowServiceStubs();
-        WorkflowClientOptions.Builder builder = WorkflowClientOptions.newBuilder();
+    private static WorkflowServiceStubsOptions withNamespaceHeader(WorkflowServiceStubsOptions options) {
+        Metadata.Key<String> namespace = Metadata.Key.of("temporal-namespace", Metadata.ASCII_STRING_MARSHALLER);
 
-        // if environment variable ENCRYPT_PAYLOADS is set to true, then use CryptCodec
-        if (System.getenv("ENCRYPT_PAYLOADS") != null && System.getenv("ENCRYPT_PAYLOADS").equals("true")) {
-            builder.setDataConverter(
-                    new CodecDataConverter(
-                            DefaultDataConverter.newDefaultInstance(),
-                            Collections.singletonList(new CryptCodec()),
-                            true/* encode failure attributes */
-                    )
-            );
+        Metadata metadata = new Metadata();
+        metadata.put(namespace, ServerInfo.getNamespace());
+
+        return WorkflowServiceStubsOptions.newBuilder(options)
+                .setChannelInitializer(
+                        (channel) -> {
+                            channel.intercept(MetadataUtils.newAttachHeadersInterceptor(metadata));
+                        })
+                .build();
+    }
+
+    private static WorkflowServiceStubs newServiceStubs(WorkflowServiceStubsOptions options) {
+        long start = System.nanoTime();
+
+        WorkflowServiceStubs service = WorkflowServiceStubs.newServiceStubs(options);
+        try {
+            service.connect(CONNECT_TIMEOUT);
+        } catch (RuntimeException e) {
+            service.shutdownNow();
+            throw e;
         }
 
-        System.out.println("<<<<SERVER INFO>>>>:\n " + ServerInfo.getServerInfo());
-        WorkflowClientOptions clientOptions = builder.setNamespace(ServerInfo.getNamespace()).build();
+        long elapsedNanos = System.nanoTime() - start;
+        connectTimer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+        lastHandshakeMillis.set(elapsedMillis);
+        totalHandshakeMillis.addAndGet(elapsedMillis);
+        channelCount.incrementAndGet();
+        return service;
+    }
 
-        // client that can be used to start and signal workflows
-        WorkflowClient client = WorkflowClient.newInstance(service, clientOptions);
-        return client;
+    // the configured codecs in encoding order, shared by the clients' data converter and the codec endpoint
+    public static List<PayloadCodec> getCodecs() {
+        return CODECS;
     }
 
-    public static ScheduleClient getScheduleClient() throws FileNotFoundException, SSLException {
-        ScheduleClientOptions.Builder builder = ScheduleClientOptions.newBuilder();
+    private static DataConverter getDataConverter() {
+        if (CODECS.isEmpty()) {
+            return null;
+        }
+        return new CodecDataConverter(
+                DefaultDataConverter.newDefaultInstance(),
+                CODECS,
+                true/* encode failure attributes */
+        );
+    }
+
+    private static List<PayloadCodec> createCodecs() {
+        List<PayloadCodec> codecs = new ArrayList<>();
 
         // if environment variable ENCRYPT_PAYLOADS is set to true, then use CryptCodec
         if (System.getenv("ENCRYPT_PAYLOADS") != null && System.getenv("ENCRYPT_PAYLOADS").equals("true")) {
-            builder.setDataConverter(
-                    new CodecDataConverter(
-                            DefaultDataConverter.newDefaultInstance(),
-                            Collections.singletonList(new CryptCodec()),
-                            true/* encode failure attributes */
-                    )
+            codecs.add(new CryptCodec());
+        }
+
+        // if environment variable COMPRESS_PAYLOADS is set to true, then use CompressionCodec
+        // codecs encode last to first, so payloads are compressed before they are encrypted
+        if (System.getenv("COMPRESS_PAYLOADS") != null && System.getenv("COMPRESS_PAYLOADS").equals("true")) {
+            codecs.add(new CompressionCodec(ServerInfo.getCompressionThreshold()));
+        }
+        return List.copyOf(codecs);
+    }
+
+    private static class Connection {
+
+        private final WorkflowServiceStubs service;
+        private final WorkflowServiceStubs serviceWithHeaders;
+        private final WorkflowClient client;
+        private final ScheduleClient scheduleClient;
+
+        Connection(WorkflowServiceStubs service, WorkflowServiceStubs serviceWithHeaders, DataConverter dataConverter) {
+            this.service = service;
+            this.serviceWithHeaders = serviceWithHeaders;
+
+            WorkflowClientOptions.Builder clientOptions = WorkflowClientOptions.newBuilder();
+            ScheduleClientOptions.Builder scheduleClientOptions = ScheduleClientOptions.newBuilder();
+            if (dataConverter != null) {
+                clientOptions.setDataConverter(dataConverter);
+                scheduleClientOptions.setDataConverter(dataConverter);
+            }
+            if (Tracing.isEnabled()) {
+                // starts, signals and queries join the trace of the request that made them
+                clientOptions.setInterceptors(new OpenTracingClientInterceptor(Tracing.getOptions()));
+            }
+
+            // client that can be used to start and signal workflows
+            this.client = WorkflowClient.newInstance(
+                    service,
+                    clientOptions.setNamespace(ServerInfo.getNamespace()).build()
+            );
+            this.scheduleClient = ScheduleClient.newInstance(
+                    serviceWithHeaders,
+                    scheduleClientOptions.setNamespace(ServerInfo.getNamespace()).build()
             );
         }
 
-        System.out.println("<<<<SERVER INFO>>>>:\n " + ServerInfo.getServerInfo());
-        ScheduleClientOptions clientOptions = builder.setNamespace(ServerInfo.getNamespace()).build();
+        void shutdown() {
+            shutdown(service);
+            if (serviceWithHeaders != service) {
+                shutdown(serviceWithHeaders);
+            }
+        }
 
-        return ScheduleClient.newInstance(getWorkflowServiceStubsWithHeaders(), clientOptions);
+        private static void shutdown(WorkflowServiceStubs stubs) {
+            stubs.shutdown();
+            if (!stubs.awaitTermination(SHUTDOWN_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)) {
+                stubs.shutdownNow();
+            }
+            channelCount.decrementAndGet();
+        }
     }
 }
@@ -0,0 +1,186 @@
+package io.temporal.samples.moneytransfer;
+
+import com.google.protobuf.ByteString;
+import io.temporal.api.common.v1.Payload;
+import io.temporal.api.workflow.v1.WorkflowExecutionInfo;
+import io.temporal.api.workflowservice.v1.ListWorkflowExecutionsResponse;
+import io.temporal.common.converter.DefaultDataConverter;
+import io.temporal.samples.moneytransfer.helper.ServerInfo;
+import io.temporal.samples.moneytransfer.helper.VisibilityQuery;
+import io.temporal.samples.moneytransfer.helper.VisibilityTime;
+import io.temporal.samples.moneytransfer.model.TransferFilter;
+import io.temporal.samples.moneytransfer.model.WorkflowStatus;
+
+import javax.net.ssl.SSLException;
+import java.io.FileNotFoundException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory copy of the recent transfers in visibility, behind the default {@code /listWorkflows}. The first read seeds
+ * it with every transfer started within the retention window; after that a read older than the refresh interval only
+ * fetches transfers started or closed since the last refresh, plus the running ones whose {@code Step} may have moved.
+ * Transfers that started before the retention window are evicted on every refresh.
+ */
+public class TransferIndex {
+
+    // visibility is eventually consistent, so every refresh looks back a little before the previous one
+    private static final Duration WATERMARK_OVERLAP = Duration.ofSeconds(5);
+
+    private static final class Entry {
+        private final WorkflowStatus status;
+        // e.g. CONTINUEDASNEW, to compare with a filter status regardless of case and underscores
+        private final String executionStatus;
+        private final String workflowType;
+        private final String step;
+        private final Instant startTime;
+
+        private Entry(WorkflowExecutionInfo info) {
+            this.status = TransferLister.toWorkflowStatus(info);
+            this.executionStatus = info.getStatus().name().replace("WORKFLOW_EXECUTION_STATUS_", "").replace("_", "");
+            this.workflowType = info.getType().getName();
+            this.step = getStep(info);
+            this.startTime = VisibilityTime.toInstant(info.getStartTime());
+        }
+    }
+
+    private static final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private static final ReentrantLock refreshLock = new ReentrantLock();
+
+    private static final AtomicLong refreshes = new AtomicLong();
+    private static final AtomicLong rowsFetched = new AtomicLong();
+    private static final AtomicLong evictions = new AtomicLong();
+
+    // start of the last successful refresh, null until the index is seeded
+    private static volatile Instant watermark;
+    private static volatile long lastRefreshMillis;
+
+    public static List<WorkflowStatus> list(TransferFilter filter) throws FileNotFoundException, SSLException {
+        String status = filter.getStatus() != null && !filter.getStatus().isEmpty()
+                ? TransferLister.toExecutionStatus(filter.getStatus()).toUpperCase()
+                : null;
+        String step = filter.getStep() != null && !filter.getStep().isEmpty() ? filter.getStep() : null;
+        refreshIfStale();
+
+        List<Entry> matches = new ArrayList<>();
+        for (Entry entry : entries.values()) {
+            if (status != null && !status.equals(entry.executionStatus)) {
+                continue;
+            }
+            if (filter.getScenario() != null && !filter.getScenario().getWorkflowType().equals(entry.workflowType)) {
+                continue;
+            }
+            if (step != null && !step.equalsIgnoreCase(entry.step)) {
+                continue;
+            }
+            matches.add(entry);
+        }
+        matches.sort(Comparator.comparing((Entry entry) -> entry.startTime).reversed());
+
+        List<WorkflowStatus> workflows = new ArrayList<>(matches.size());
+        for (Entry entry : matches) {
+            workflows.add(entry.status);
+        }
+        return workflows;
+    }
+
+    public static Map<String, Object> getIndexMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("size", entries.size());
+        metrics.put("watermark", watermark != null ? watermark.toString() : null);
+        metrics.put("refreshes", refreshes.get());
+        metrics.put("rowsFetched", rowsFetched.get());
+        metrics.put("evictions", evictions.get());
+        metrics.put("lastRefreshMillis", lastRefreshMillis);
+        return metrics;
+    }
+
+    private static void refreshIfStale() throws FileNotFoundException, SSLException {
+        Instant last = watermark;
+        if (last != null && Instant.now().isBefore(last.plusMillis(ServerInfo.getIndexRefreshMillis()))) {
+            return;
+        }
+        if (last != null) {
+            // a refresh is already under way, serve what the index holds rather than wait for it
+            if (!refreshLock.tryLock()) {
+                return;
+            }
+        } else {
+            // nothing to serve until the index is seeded
+            refreshLock.lock();
+        }
+        try {
+            if (watermark == last) {
+                refresh();
+            }
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    private static void refresh() throws FileNotFoundException, SSLException {
+        long start = System.currentTimeMillis();
+        Instant now = Instant.now();
+        Instant retainFrom = now.minus(Duration.ofMinutes(ServerInfo.getIndexRetentionMinutes()));
+
+        String query = refreshQuery(watermark, retainFrom);
+
+        ByteString pageToken = ByteString.EMPTY;
+        do {
+            ListWorkflowExecutionsResponse response = TransferLister.listPage(
+                    query,
+                    TransferLister.MAX_PAGE_SIZE,
+                    pageToken
+            );
+            for (WorkflowExecutionInfo info : response.getExecutionsList()) {
+                Entry entry = new Entry(info);
+                if (!entry.startTime.isBefore(retainFrom)) {
+                    entries.put(info.getExecution().getWorkflowId(), entry);
+                }
+            }
+            rowsFetched.addAndGet(response.getExecutionsCount());
+            pageToken = response.getNextPageToken();
+        } while (!pageToken.isEmpty());
+
+        int sizeBefore = entries.size();
+        entries.values().removeIf(entry -> entry.startTime.isBefore(retainFrom));
+        evictions.addAndGet(sizeBefore - entries.size());
+
+        watermark = now;
+        refreshes.incrementAndGet();
+        lastRefreshMillis = System.currentTimeMillis() - start;
+    }
+
+    // seeds with every transfer since retainFrom, or fetches what may have changed since the last refresh
+    static String refreshQuery(Instant watermark, Instant retainFrom) {
+        VisibilityQuery filter = TransferLister.filterQuery(new TransferFilter());
+        if (watermark == null) {
+            filter.atOrAfter("StartTime", retainFrom);
+        } else {
+            Instant since = watermark.minus(WATERMARK_OVERLAP);
+            filter.anyOf(
+                    new VisibilityQuery().equal("ExecutionStatus", "Running"),
+                    new VisibilityQuery().atOrAfter("StartTime", since),
+                    new VisibilityQuery().atOrAfter("CloseTime", since)
+            );
+        }
+        return filter.build();
+    }
+
+    private static String getStep(WorkflowExecutionInfo info) {
+        Payload step = info.getSearchAttributes().getIndexedFieldsMap().get("Step");
+        if (step == null) {
+            return null;
+        }
+        // search attributes bypass the payload codec, so the standard converter reads them
+        return DefaultDataConverter.STANDARD_INSTANCE.fromPayload(step, String.class, String.class);
+    }
+}
@@ -1,124 +1,171 @@
 package io.temporal.samples.moneytransfer;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.google.common.base.Splitter;
-import com.google.protobuf.Timestamp;
-import io.grpc.stub.MetadataUtils;
+import com.google.protobuf.ByteString;
 import io.temporal.api.workflow.v1.WorkflowExecutionInfo;
 import io.temporal.api.workflowservice.v1.ListWorkflowExecutionsRequest;
 import io.temporal.api.workflowservice.v1.ListWorkflowExecutionsResponse;
-import io.temporal.client.WorkflowClient;
-import io.temporal.client.WorkflowExecutionMetadata;
 import io.temporal.samples.moneytransfer.helper.ServerInfo;
+import io.temporal.samples.moneytransfer.helper.VisibilityQuery;
+import io.temporal.samples.moneytransfer.model.TransferFilter;
+import io.temporal.samples.moneytransfer.model.WorkflowPage;
 import io.temporal.samples.moneytransfer.model.WorkflowStatus;
-import io.temporal.serviceclient.WorkflowServiceStubs;
 
 import javax.net.ssl.SSLException;
 import java.io.FileNotFoundException;
-import java.text.SimpleDateFormat;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Duration;
 import java.time.Instant;
-import java.time.LocalDateTime;
-import java.time.ZoneId;
 import java.util.ArrayList;
+import java.util.Base64;
 import java.util.List;
 
-import static io.temporal.samples.moneytransfer.TemporalClient.getWorkflowServiceStubs;
+import static io.temporal.samples.moneytransfer.TemporalClient.getWorkflowServiceStubsWithHeaders;
+import static io.temporal.samples.moneytransfer.web.WebServer.MAPPER;
 
+/**
+ * Lists transfer workflows from visibility with one query for open and closed executions. Callers either fetch one
+ * page at a time with an opaque page token, or stream every page as a single JSON array without holding more than one
+ * page in memory.
+ */
 public class TransferLister {
 
-    public static List<WorkflowStatus> listWorkflows() throws FileNotFoundException, SSLException {
-        WorkflowClient client = TemporalClient.get();
-
-        List<WorkflowExecutionMetadata> responseOpen = client.listExecutions(
-                "ExecutionStatus = 'Running'" +
-                "AND WorkflowType STARTS_WITH 'AccountTransferWorkflow'" +
-                "AND StartTime BETWEEN '" +
-                timeStampToString(getOneHourAgo()) +
-                "'" +
-                " AND '" +
-                timeStampToString(getNow()) +
-                "'"
-            ).toList();
-
-        List<WorkflowExecutionMetadata> responseClosed = client.listExecutions(
-        "ExecutionStatus != 'Running'" +
-                "AND WorkflowType STARTS_WITH 'AccountTransferWorkflow'" +
-                "AND StartTime BETWEEN '" +
-                timeStampToString(getOneHourAgo()) +
-                "'" +
-                " AND '" +
-                timeStampToString(getNow()) +
-                "'"
-            ).toList();
-
-        // array of WorkflowStatus
-        List<WorkflowStatus> workflowStatusList = new ArrayList<>();
-
-        for (WorkflowExecutionMetadata workflowExecutionMetadata : responseOpen) {
-            WorkflowStatus workflowStatusOpen = new WorkflowStatus();
-            workflowStatusOpen.setWorkflowId(workflowExecutionMetadata.getExecution().getWorkflowId());
-            workflowStatusOpen.setWorkflowStatus(getWorkflowStatus(workflowExecutionMetadata.getStatus().toString()));
-            workflowStatusOpen.setUrl(getWorkflowUrl(workflowExecutionMetadata.getExecution().getWorkflowId()));
-            workflowStatusList.add(workflowStatusOpen);
+    public static final Duration DEFAULT_WINDOW = Duration.ofHours(1);
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    // the statuses visibility accepts in ExecutionStatus = '...'
+    private static final List<String> EXECUTION_STATUSES = List.of(
+            "Running",
+            "Completed",
+            "Failed",
+            "Canceled",
+            "Terminated",
+            "ContinuedAsNew",
+            "TimedOut"
+    );
+
+    public static WorkflowPage listWorkflows(
+            Instant from,
+            Instant to,
+            TransferFilter filter,
+            int pageSize,
+            String pageToken
+    ) throws FileNotFoundException, SSLException {
+        ListWorkflowExecutionsResponse response = listPage(
+                buildQuery(from, to, filter),
+                pageSize,
+                decodePageToken(pageToken)
+        );
+
+        List<WorkflowStatus> workflows = new ArrayList<>(response.getExecutionsCount());
+        for (WorkflowExecutionInfo info : response.getExecutionsList()) {
+            workflows.add(toWorkflowStatus(info));
         }
+        return new WorkflowPage(workflows, encodePageToken(response.getNextPageToken()));
+    }
 
-        for (WorkflowExecutionMetadata workflowExecutionMetadata : responseClosed) {
-            WorkflowStatus workflowStatusClosed = new WorkflowStatus();
-            workflowStatusClosed.setWorkflowId(workflowExecutionMetadata.getExecution().getWorkflowId());
-            workflowStatusClosed.setWorkflowStatus(getWorkflowStatus(workflowExecutionMetadata.getStatus().toString()));
-            workflowStatusClosed.setUrl(getWorkflowUrl(workflowExecutionMetadata.getExecution().getWorkflowId()));
-            workflowStatusList.add(workflowStatusClosed);
+    // writes every matching workflow as one JSON array, fetching and flushing a page at a time
+    public static void streamWorkflows(Instant from, Instant to, TransferFilter filter, OutputStream out)
+            throws IOException {
+        String query = buildQuery(from, to, filter);
+        try (JsonGenerator generator = MAPPER.getFactory().createGenerator(out)) {
+            generator.writeStartArray();
+            ByteString pageToken = ByteString.EMPTY;
+            do {
+                ListWorkflowExecutionsResponse response = listPage(query, MAX_PAGE_SIZE, pageToken);
+                for (WorkflowExecutionInfo info : response.getExecutionsList()) {
+                    generator.writeObject(toWorkflowStatus(info));
+                }
+                generator.flush();
+                pageToken = response.getNextPageToken();
+            } while (!pageToken.isEmpty());
+            generator.writeEndArray();
         }
-
-        return workflowStatusList;
     }
 
-    // in the format the UI expects
-    private static String getWorkflowStatus(String input) {
-        if (input == null || input.isEmpty()) {
-            return ""; // Return empty string if input is null or empty
+    public static String buildQuery(Instant from, Instant to, TransferFilter filter) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("from must not be after to");
         }
+        return filterQuery(filter).between("StartTime", from, to).build();
+    }
 
-        List<String> parts = Splitter.on('_').splitToList(input);
-
-        return parts.get(parts.size() - 1); // Return the last part
+    // the filter as visibility clauses, starting with the workflow type every transfer has
+    static VisibilityQuery filterQuery(TransferFilter filter) {
+        VisibilityQuery query = new VisibilityQuery();
+        if (filter.getScenario() != null) {
+            query.equal("WorkflowType", filter.getScenario().getWorkflowType());
+        } else {
+            query.startsWith("WorkflowType", "AccountTransferWorkflow");
+        }
+        if (filter.getStatus() != null && !filter.getStatus().isEmpty()) {
+            query.equal("ExecutionStatus", toExecutionStatus(filter.getStatus()));
+        }
+        if (filter.getStep() != null && !filter.getStep().isEmpty()) {
+            query.equal("Step", filter.getStep());
+        }
+        return query;
     }
 
-    private static String timeStampToString(Timestamp aTime) {
-        java.sql.Timestamp javaTimestamp = new java.sql.Timestamp(aTime.getSeconds() * 1000);
-        return new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSSXXX").format(javaTimestamp);
+    static ListWorkflowExecutionsResponse listPage(String query, int pageSize, ByteString pageToken)
+            throws FileNotFoundException, SSLException {
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("pageSize must be from 1 to " + MAX_PAGE_SIZE);
+        }
+        return getWorkflowServiceStubsWithHeaders().blockingStub().listWorkflowExecutions(
+                ListWorkflowExecutionsRequest.newBuilder()
+                        .setNamespace(ServerInfo.getNamespace())
+                        .setQuery(query)
+                        .setPageSize(pageSize)
+                        .setNextPageToken(pageToken)
+                        .build()
+        );
     }
 
-    private static Timestamp getNow() {
-        LocalDateTime now = LocalDateTime.now(ZoneId.of("UTC"));
-        Instant instant = now.atZone(ZoneId.of("UTC")).toInstant();
-        Timestamp timestamp = Timestamp.newBuilder()
-                .setSeconds(instant.getEpochSecond())
-                .setNanos(instant.getNano())
-                .build();
+    static WorkflowStatus toWorkflowStatus(WorkflowExecutionInfo info) {
+        String workflowId = info.getExecution().getWorkflowId();
+        return new WorkflowStatus(workflowId, getWorkflowStatus(info.getStatus().toString()), getWorkflowUrl(workflowId));
+    }
 
-        return timestamp;
+    // accepts any case, e.g. "failed" or "FAILED"; anything else is rejected rather than pasted into the query
+    static String toExecutionStatus(String status) {
+        for (String executionStatus : EXECUTION_STATUSES) {
+            if (executionStatus.equalsIgnoreCase(status)) {
+                return executionStatus;
+            }
+        }
+        throw new IllegalArgumentException("status must be one of " + EXECUTION_STATUSES);
     }
 
-    private static Timestamp getOneHourAgo() {
-        // Get current date-time in UTC
-        LocalDateTime now = LocalDateTime.now(ZoneId.of("UTC"));
+    private static ByteString decodePageToken(String pageToken) {
+        if (pageToken == null || pageToken.isEmpty()) {
+            return ByteString.EMPTY;
+        }
+        try {
+            return ByteString.copyFrom(Base64.getUrlDecoder().decode(pageToken));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Malformed pageToken");
+        }
+    }
 
-        // Subtract one hour
-        LocalDateTime oneHourAgo = now.minusHours(1);
+    private static String encodePageToken(ByteString pageToken) {
+        return pageToken.isEmpty() ? null : Base64.getUrlEncoder().withoutPadding().encodeToString(pageToken.toByteArray());
+    }
 
-        // Convert LocalDateTime to Instant
-        Instant instant = oneHourAgo.atZone(ZoneId.of("UTC")).toInstant();
+    // in the format the UI expects
+    static String getWorkflowStatus(String input) {
+        if (input == null || input.isEmpty()) {
+            return ""; // Return empty string if input is null or empty
+        }
 
-        // Convert Instant to Timestamp
-        Timestamp timestamp = Timestamp.newBuilder()
-                .setSeconds(instant.getEpochSecond())
-                .setNanos(instant.getNano())
-                .build();
+        List<String> parts = Splitter.on('_').splitToList(input);
 
-        return timestamp;
+        return parts.get(parts.size() - 1); // Return the last part
     }
 
-    private static String getWorkflowUrl(String workflowId) {
+    static String getWorkflowUrl(String workflowId) {
         String url = "";
         if (ServerInfo.getAddress().endsWith(".tmprl.cloud:7233")) {
             url = "https://cloud.temporal.io/namespaces/" + ServerInfo.getNamespace() + "/workflows/" + workflowId;
@@ -127,15 +174,21 @@ public class TransferLister {
     }
 
     public static void main(String[] args) throws FileNotFoundException, SSLException {
-        List<WorkflowStatus> workflowStatusList = listWorkflows();
-        for (WorkflowStatus workflowStatus : workflowStatusList) {
-            System.out.println(
-                    workflowStatus.getWorkflowId() +
-                            " " +
-                            workflowStatus.getWorkflowStatus() +
-                            " " +
-                            workflowStatus.getUrl()
-            );
-        }
+        Instant to = Instant.now();
+        Instant from = to.minus(DEFAULT_WINDOW);
+        String pageToken = null;
+        do {
+            WorkflowPage page = listWorkflows(from, to, new TransferFilter(), 100, pageToken);
+            for (WorkflowStatus workflowStatus : page.getWorkflows()) {
+                System.out.println(
+                        workflowStatus.getWorkflowId() +
+                                " " +
+                                workflowStatus.getWorkflowStatus() +
+                                " " +
+                                workflowStatus.getUrl()
+                );
+            }
+            pageToken = page.getNextPageToken();
+        } while (pageToken != null);
     }
 }
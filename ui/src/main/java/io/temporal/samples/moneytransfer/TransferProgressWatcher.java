@@ -0,0 +1,175 @@
+package io.temporal.samples.moneytransfer;
+
+import io.javalin.http.sse.SseClient;
+import io.temporal.samples.moneytransfer.helper.ServerInfo;
+import io.temporal.samples.moneytransfer.helper.TransferStatusCache;
+import io.temporal.samples.moneytransfer.model.TransferStatus;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static io.temporal.samples.moneytransfer.TransferRequester.runQueryEntryAsync;
+
+/**
+ * Pushes transfer progress to server-sent event subscribers. A single watcher thread fetches the status of every
+ * subscribed transfer once per interval, however many clients follow it, and sends a {@code progress} event only when
+ * the status changed. The queries of one refresh run concurrently; one that is still pending at the timeout is left to
+ * the next refresh, which shares it through the status cache. A transfer that closed, however it closed, gets a final
+ * {@code done} event and is dropped.
+ */
+public class TransferProgressWatcher {
+
+    private static final Map<String, Set<SseClient>> subscribers = new ConcurrentHashMap<>();
+    private static final Map<String, TransferStatus> lastStatus = new ConcurrentHashMap<>();
+
+    private static volatile ScheduledExecutorService watcher;
+
+    public static void subscribe(SseClient client, List<String> workflowIds) {
+        client.keepAlive();
+        client.onClose(() -> unsubscribe(client, workflowIds));
+
+        for (String workflowId : workflowIds) {
+            subscribers.computeIfAbsent(workflowId, id -> ConcurrentHashMap.newKeySet()).add(client);
+
+            // a new subscriber gets the last known status straight away instead of after the next change
+            TransferStatus status = lastStatus.get(workflowId);
+            if (status != null) {
+                client.sendEvent("progress", event(workflowId, status));
+            }
+        }
+        startWatcher();
+    }
+
+    public static Map<String, Object> getWatcherMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("watchedTransfers", subscribers.size());
+        metrics.put("subscriptions", subscribers.values().stream().mapToInt(Set::size).sum());
+        metrics.put("pollMillis", ServerInfo.getProgressPollMillis());
+        return metrics;
+    }
+
+    private static void unsubscribe(SseClient client, List<String> workflowIds) {
+        for (String workflowId : workflowIds) {
+            subscribers.computeIfPresent(workflowId, (id, clients) -> {
+                clients.remove(client);
+                return clients.isEmpty() ? null : clients;
+            });
+            if (!subscribers.containsKey(workflowId)) {
+                lastStatus.remove(workflowId);
+            }
+        }
+    }
+
+    private static void poll() {
+        // anything thrown out of here would cancel the scheduled refresh for every subscriber
+        try {
+            refresh();
+        } catch (Throwable e) {
+            System.err.println("Progress refresh failed: " + e);
+        }
+    }
+
+    private static void refresh() {
+        Map<String, CompletableFuture<TransferStatusCache.Entry>> queries = new LinkedHashMap<>();
+        for (String workflowId : subscribers.keySet()) {
+            queries.put(workflowId, runQueryEntryAsync(workflowId));
+        }
+        try {
+            CompletableFuture.allOf(queries.values().toArray(new CompletableFuture<?>[0]))
+                    .get(ServerInfo.getProgressQueryTimeoutMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException | ExecutionException e) {
+            // failed queries are reported per transfer below, pending ones are left to the next refresh
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+
+        for (Map.Entry<String, CompletableFuture<TransferStatusCache.Entry>> query : queries.entrySet()) {
+            // one transfer's failure, e.g. a subscriber that went away mid-send, must not skip the others
+            try {
+                if (query.getValue().isDone()) {
+                    update(query.getKey(), query.getValue());
+                }
+            } catch (Throwable e) {
+                System.err.println("Progress refresh of " + query.getKey() + " failed: " + e);
+            }
+        }
+    }
+
+    private static void update(String workflowId, CompletableFuture<TransferStatusCache.Entry> query) {
+        TransferStatusCache.Entry entry;
+        try {
+            entry = query.join();
+        } catch (CompletionException e) {
+            // unknown workflow or server trouble, tell the subscribers and stop watching it
+            Map<String, Object> error = new LinkedHashMap<>();
+            error.put("workflowId", workflowId);
+            error.put("error", e.getCause().toString());
+            publish(workflowId, "error", error);
+            subscribers.remove(workflowId);
+            lastStatus.remove(workflowId);
+            return;
+        }
+
+        TransferStatus status = entry.getStatus();
+        if (entry.isClosed() || status.getProgressPercentage() >= 100) {
+            publish(workflowId, "done", event(workflowId, status));
+            subscribers.remove(workflowId);
+            lastStatus.remove(workflowId);
+        } else if (!status.equals(lastStatus.put(workflowId, status))) {
+            publish(workflowId, "progress", event(workflowId, status));
+        }
+    }
+
+    private static void publish(String workflowId, String event, Object data) {
+        Set<SseClient> clients = subscribers.get(workflowId);
+        if (clients == null) {
+            return;
+        }
+        for (SseClient client : clients) {
+            if (client.terminated()) {
+                clients.remove(client);
+            } else {
+                client.sendEvent(event, data);
+            }
+        }
+    }
+
+    private static Map<String, Object> event(String workflowId, TransferStatus status) {
+        Map<String, Object> event = new LinkedHashMap<>();
+        event.put("workflowId", workflowId);
+        event.put("status", status);
+        return event;
+    }
+
+    private static void startWatcher() {
+        if (watcher == null) {
+            synchronized (TransferProgressWatcher.class) {
+                if (watcher == null) {
+                    watcher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                        Thread thread = new Thread(runnable, "transfer-progress-watcher");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+                    long pollMillis = ServerInfo.getProgressPollMillis();
+                    watcher.scheduleWithFixedDelay(
+                            TransferProgressWatcher::poll,
+                            0,
+                            pollMillis,
+                            TimeUnit.MILLISECONDS
+                    );
+                }
+            }
+        }
+    }
+}
@@ -1,45 +1,92 @@
 package io.temporal.samples.moneytransfer;
 
-import io.temporal.api.common.v1.WorkflowExecution;
-import io.temporal.api.workflowservice.v1.DescribeWorkflowExecutionRequest;
-import io.temporal.api.workflowservice.v1.DescribeWorkflowExecutionResponse;
-import io.temporal.api.workflowservice.v1.WorkflowServiceGrpc;
+import io.temporal.api.enums.v1.WorkflowExecutionStatus;
 import io.temporal.client.WorkflowClient;
 import io.temporal.client.WorkflowOptions;
 import io.temporal.client.WorkflowStub;
 import io.temporal.samples.moneytransfer.helper.ServerInfo;
+import io.temporal.samples.moneytransfer.helper.TransferStatusCache;
 import io.temporal.samples.moneytransfer.model.ExecutionScenario;
 import io.temporal.samples.moneytransfer.model.TransferInput;
 import io.temporal.samples.moneytransfer.model.TransferOutput;
 import io.temporal.samples.moneytransfer.model.TransferStatus;
-import io.temporal.serviceclient.WorkflowServiceStubs;
 
 import javax.net.ssl.SSLException;
 import java.io.FileNotFoundException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
-import static io.temporal.samples.moneytransfer.TemporalClient.getWorkflowServiceStubsWithHeaders;
+import static io.temporal.samples.moneytransfer.helper.TransferIdGenerator.nextTransferId;
 
 public class TransferRequester {
 
-    public static TransferOutput getWorkflowOutcome(String workflowId) throws FileNotFoundException, SSLException {
+    private static volatile ExecutorService queriers;
+
+    // completes with the workflow's result, or with a TimeoutException after TEMPORAL_OUTCOME_TIMEOUT_SECONDS
+    public static CompletableFuture<TransferOutput> getWorkflowOutcome(String workflowId)
+            throws FileNotFoundException, SSLException {
         WorkflowClient client = TemporalClient.get();
         WorkflowStub workflowStub = client.newUntypedWorkflowStub(workflowId);
 
-        // Returns the result after waiting for the Workflow to complete.
-        TransferOutput result = workflowStub.getResult(TransferOutput.class);
-        return result;
+        // long polls for the result without holding a thread while the workflow runs
+        return workflowStub.getResultAsync(
+                ServerInfo.getOutcomeTimeoutSeconds(),
+                TimeUnit.SECONDS,
+                TransferOutput.class
+        );
     }
 
-    public static TransferStatus runQuery(String workflowId) throws FileNotFoundException, SSLException {
-        WorkflowClient client = TemporalClient.get();
-        System.out.println("Workflow STATUS: " + getWorkflowStatus(workflowId));
+    public static CompletableFuture<TransferStatus> runQueryAsync(String workflowId) {
+        return TransferStatusCache.get(workflowId, TransferRequester::queryTransferStatus);
+    }
 
-        WorkflowStub workflowStub = client.newUntypedWorkflowStub(workflowId);
-        TransferStatus result = workflowStub.query("transferStatus", TransferStatus.class);
-        if ("WORKFLOW_EXECUTION_STATUS_FAILED".equals(getWorkflowStatus(workflowId))) {
-            result.setWorkflowStatus("FAILED");
+    // the status with whether the transfer has closed, for callers that stop following it once it has
+    public static CompletableFuture<TransferStatusCache.Entry> runQueryEntryAsync(String workflowId) {
+        return TransferStatusCache.getEntry(workflowId, TransferRequester::queryTransferStatus);
+    }
+
+    // describes and queries the workflow concurrently through the client, so its interceptors (tracing, metrics) see
+    // both calls; the client's calls block, so they run on the querier pool instead of the caller's thread
+    private static CompletableFuture<TransferStatusCache.Entry> queryTransferStatus(String workflowId)
+            throws FileNotFoundException, SSLException {
+        WorkflowStub workflowStub = TemporalClient.get().newUntypedWorkflowStub(workflowId);
+
+        CompletableFuture<WorkflowExecutionStatus> workflowStatus = CompletableFuture.supplyAsync(
+                () -> workflowStub.describe().getStatus(),
+                getQueriers()
+        );
+        CompletableFuture<TransferStatus> transferStatus = CompletableFuture.supplyAsync(
+                () -> workflowStub.query("transferStatus", TransferStatus.class),
+                getQueriers()
+        );
+
+        return workflowStatus.thenCombine(transferStatus, (status, result) -> {
+            System.out.println("Workflow STATUS: " + status.name());
+            if (status == WorkflowExecutionStatus.WORKFLOW_EXECUTION_STATUS_FAILED) {
+                result.setWorkflowStatus("FAILED");
+            }
+            return new TransferStatusCache.Entry(
+                    result,
+                    status != WorkflowExecutionStatus.WORKFLOW_EXECUTION_STATUS_RUNNING
+            );
+        });
+    }
+
+    private static ExecutorService getQueriers() {
+        if (queriers == null) {
+            synchronized (TransferRequester.class) {
+                if (queriers == null) {
+                    queriers = Executors.newFixedThreadPool(ServerInfo.getQueryParallelism(), runnable -> {
+                        Thread thread = new Thread(runnable, "transfer-querier");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+                }
+            }
         }
-        return result;
+        return queriers;
     }
 
     public static void runApproveSignal(String workflowId) {
@@ -54,7 +101,7 @@ public class TransferRequester {
 
     public static String runWorkflow(TransferInput transferInput, ExecutionScenario scenario)
             throws FileNotFoundException, SSLException {
-        String referenceNumber = generateReferenceNumber(); // random reference number
+        String referenceNumber = nextTransferId(); // time-ordered reference number
         WorkflowClient client = TemporalClient.get();
         final String TASK_QUEUE = ServerInfo.getTaskqueue();
         String workflowType = scenario.getWorkflowType();
@@ -75,26 +122,4 @@ public class TransferRequester {
         runWorkflow(params, ExecutionScenario.HAPPY_PATH);
         System.exit(0);
     }
-
-    private static String generateReferenceNumber() {
-        return String.format(
-                "TRANSFER-%s-%03d",
-                (char) (Math.random() * 26 + 'A') +
-                        "" +
-                        (char) (Math.random() * 26 + 'A') +
-                        (char) (Math.random() * 26 + 'A'),
-                (int) (Math.random() * 999)
-        );
-    }
-
-    private static String getWorkflowStatus(String workflowId) throws FileNotFoundException, SSLException {
-        WorkflowServiceStubs service = getWorkflowServiceStubsWithHeaders();
-        WorkflowServiceGrpc.WorkflowServiceBlockingStub stub = service.blockingStub();
-        DescribeWorkflowExecutionRequest request = DescribeWorkflowExecutionRequest.newBuilder()
-                .setNamespace(ServerInfo.getNamespace())
-                .setExecution(WorkflowExecution.newBuilder().setWorkflowId(workflowId))
-                .build();
-        DescribeWorkflowExecutionResponse response = stub.describeWorkflowExecution(request);
-        return response.getWorkflowExecutionInfo().getStatus().name();
-    }
 }
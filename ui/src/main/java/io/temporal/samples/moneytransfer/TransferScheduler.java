@@ -23,6 +23,7 @@ import java.util.Collections;
 
 import static io.temporal.samples.moneytransfer.TemporalClient.getScheduleClient;
 import static io.temporal.samples.moneytransfer.TemporalClient.getWorkflowServiceStubs;
+import static io.temporal.samples.moneytransfer.helper.TransferIdGenerator.nextTransferId;
 
 public class TransferScheduler {
 
@@ -37,17 +38,18 @@ public class TransferScheduler {
 
     public static TransferStatus runQuery(String workflowId) throws FileNotFoundException, SSLException {
         WorkflowClient client = TemporalClient.get();
-        System.out.println("Workflow STATUS: " + getWorkflowStatus(workflowId));
+        String workflowStatus = getWorkflowStatus(workflowId);
+        System.out.println("Workflow STATUS: " + workflowStatus);
         WorkflowStub workflowStub = client.newUntypedWorkflowStub(workflowId);
         TransferStatus result = workflowStub.query("transferStatus", TransferStatus.class);
-        if ("WORKFLOW_EXECUTION_STATUS_FAILED".equals(getWorkflowStatus(workflowId))) {
+        if ("WORKFLOW_EXECUTION_STATUS_FAILED".equals(workflowStatus)) {
             result.setWorkflowStatus("FAILED");
         }
         return result;
     }
 
     public static String runWorkflow(TransferInput workflowParameterObj) throws FileNotFoundException, SSLException {
-        String referenceNumber = generateReferenceNumber(); // random reference number
+        String referenceNumber = nextTransferId(); // time-ordered reference number
         WorkflowClient client = TemporalClient.get();
         final String TASK_QUEUE = ServerInfo.getTaskqueue();
         WorkflowOptions options = WorkflowOptions.newBuilder()
@@ -64,9 +66,15 @@ public class TransferScheduler {
         String scheduleNumber = null;
         try {
             int amountCents = scheduleParameters.getAmount(); // amount to transfer
-            TransferInput params = new TransferInput(amountCents, "account1", "account2");
+            TransferInput params = new TransferInput(
+                    amountCents,
+                    "account1",
+                    "account2",
+                    ServerInfo.getTransferProfile(),
+                    ServerInfo.isTransferLocalActivities()
+            );
             ScheduleClient scheduleClient = getScheduleClient();
-            String referenceNumber = generateReferenceNumber(); // random reference number
+            String referenceNumber = nextTransferId(); // time-ordered reference number
             scheduleNumber = referenceNumber + "-schedule";
             final String TASK_QUEUE = ServerInfo.getTaskqueue();
             WorkflowOptions options = WorkflowOptions.newBuilder()
@@ -132,17 +140,6 @@ public class TransferScheduler {
         System.exit(0);
     }
 
-    private static String generateReferenceNumber() {
-        return String.format(
-                "TRANSFER-%s-%03d",
-                (char) (Math.random() * 26 + 'A') +
-                        "" +
-                        (char) (Math.random() * 26 + 'A') +
-                        (char) (Math.random() * 26 + 'A'),
-                (int) (Math.random() * 999)
-        );
-    }
-
     private static String getWorkflowStatus(String workflowId) throws FileNotFoundException, SSLException {
         WorkflowServiceStubs service = getWorkflowServiceStubs();
         WorkflowServiceGrpc.WorkflowServiceBlockingStub stub = service.blockingStub();
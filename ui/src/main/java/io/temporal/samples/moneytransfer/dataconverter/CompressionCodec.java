@@ -0,0 +1,128 @@
+package io.temporal.samples.moneytransfer.dataconverter;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.UnsafeByteOperations;
+import io.temporal.api.common.v1.Payload;
+import io.temporal.common.converter.EncodingKeys;
+import io.temporal.payload.codec.PayloadCodec;
+import io.temporal.payload.codec.PayloadCodecException;
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Deflates whole payloads. Stack it after {@link CryptCodec} in the codec list so payloads are compressed before they
+ * are encrypted: encoding runs the codecs last to first.
+ * <p>
+ * A copy of the worker's {@code util.CompressionCodec}; both must read what the other wrote, so change them together.
+ */
+public class CompressionCodec implements PayloadCodec {
+
+    static final ByteString METADATA_ENCODING = ByteString.copyFrom("binary/compressed", StandardCharsets.UTF_8);
+    static final String METADATA_COMPRESSION_KEY = "compression";
+    static final ByteString METADATA_COMPRESSION_DEFLATE = ByteString.copyFrom("deflate", StandardCharsets.UTF_8);
+
+    // Deflater and Inflater hold native state, keep one of each per thread and reset them between payloads
+    private static final ThreadLocal<Deflater> DEFLATERS = ThreadLocal.withInitial(
+            () -> new Deflater(Deflater.BEST_SPEED)
+    );
+    private static final ThreadLocal<Inflater> INFLATERS = ThreadLocal.withInitial(Inflater::new);
+
+    // bytes the compressed payload adds on top of the compressed data: metadata plus the data field tag and length
+    private static final int ENVELOPE_SIZE = Payload.newBuilder()
+            .putMetadata(EncodingKeys.METADATA_ENCODING_KEY, METADATA_ENCODING)
+            .putMetadata(METADATA_COMPRESSION_KEY, METADATA_COMPRESSION_DEFLATE)
+            .build()
+            .getSerializedSize() + 6;
+
+    // payloads smaller than this (serialized) are passed through, deflate rarely pays off on them
+    private final int threshold;
+
+    public CompressionCodec() {
+        this(256);
+    }
+
+    public CompressionCodec(int threshold) {
+        this.threshold = threshold;
+    }
+
+    @NotNull
+    @Override
+    public List<Payload> encode(@NotNull List<Payload> payloads) {
+        return payloads.stream().map(this::encodePayload).collect(Collectors.toList());
+    }
+
+    @NotNull
+    @Override
+    public List<Payload> decode(@NotNull List<Payload> payloads) {
+        return payloads.stream().map(this::decodePayload).collect(Collectors.toList());
+    }
+
+    private Payload encodePayload(Payload payload) {
+        int size = payload.getSerializedSize();
+        if (size < threshold || size <= ENVELOPE_SIZE) {
+            return payload;
+        }
+
+        byte[] plainData = payload.toByteArray();
+        Deflater deflater = DEFLATERS.get();
+        deflater.reset();
+        deflater.setInput(plainData);
+        deflater.finish();
+
+        // only keep the result if the compressed payload ends up smaller than the input
+        byte[] compressedData = new byte[size - ENVELOPE_SIZE];
+        int length = 0;
+        while (!deflater.finished() && length < compressedData.length) {
+            length += deflater.deflate(compressedData, length, compressedData.length - length);
+        }
+        if (!deflater.finished()) {
+            return payload;
+        }
+
+        return Payload.newBuilder()
+                .putMetadata(EncodingKeys.METADATA_ENCODING_KEY, METADATA_ENCODING)
+                .putMetadata(METADATA_COMPRESSION_KEY, METADATA_COMPRESSION_DEFLATE)
+                .setData(UnsafeByteOperations.unsafeWrap(compressedData, 0, length))
+                .build();
+    }
+
+    private Payload decodePayload(Payload payload) {
+        if (!METADATA_ENCODING.equals(payload.getMetadataOrDefault(EncodingKeys.METADATA_ENCODING_KEY, null))) {
+            return payload;
+        }
+        if (!METADATA_COMPRESSION_DEFLATE.equals(payload.getMetadataOrDefault(METADATA_COMPRESSION_KEY, null))) {
+            throw new PayloadCodecException("Unsupported compression: " + payload.getMetadataMap().get(METADATA_COMPRESSION_KEY));
+        }
+
+        try {
+            Inflater inflater = INFLATERS.get();
+            inflater.reset();
+            ByteString compressedData = payload.getData();
+            inflater.setInput(compressedData.asReadOnlyByteBuffer());
+
+            byte[] plainData = new byte[Math.max(compressedData.size() * 4, 64)];
+            int length = 0;
+            while (!inflater.finished()) {
+                if (length == plainData.length) {
+                    plainData = Arrays.copyOf(plainData, plainData.length * 2);
+                }
+                int inflated = inflater.inflate(plainData, length, plainData.length - length);
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new PayloadCodecException("Truncated compressed payload");
+                }
+                length += inflated;
+            }
+            return Payload.parseFrom(UnsafeByteOperations.unsafeWrap(plainData, 0, length));
+        } catch (PayloadCodecException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new PayloadCodecException(e);
+        }
+    }
+}
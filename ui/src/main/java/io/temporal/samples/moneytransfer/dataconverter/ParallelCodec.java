@@ -0,0 +1,84 @@
+package io.temporal.samples.moneytransfer.dataconverter;
+
+import io.temporal.api.common.v1.Payload;
+import io.temporal.payload.codec.PayloadCodec;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BiFunction;
+
+/**
+ * Runs a codec chain over long payload lists on several threads. A list of at least {@code threshold} payloads is cut
+ * into one contiguous slice per thread, every slice goes through the whole chain on the pool, and the results are
+ * joined back in input order; shorter lists stay on the calling thread. The SDK's data converter hands codecs one small
+ * {@code Payloads} message at a time, so this only pays off where a whole history is coded in one call, as in the
+ * codec endpoint the Temporal UI uses to decode a transfer's history.
+ */
+public class ParallelCodec implements PayloadCodec {
+
+    // in encoding order, encoding runs them last to first and decoding first to last
+    private final List<PayloadCodec> codecs;
+    private final int threshold;
+    private final int parallelism;
+    private final ExecutorService pool;
+
+    public ParallelCodec(List<PayloadCodec> codecs, int threshold, int parallelism) {
+        this.codecs = List.copyOf(codecs);
+        this.threshold = threshold;
+        this.parallelism = parallelism;
+        this.pool = threshold > 0 && parallelism > 1
+                ? Executors.newFixedThreadPool(parallelism, runnable -> {
+                    Thread thread = new Thread(runnable, "parallel-codec");
+                    thread.setDaemon(true);
+                    return thread;
+                })
+                : null;
+    }
+
+    @NotNull
+    @Override
+    public List<Payload> encode(@NotNull List<Payload> payloads) {
+        return map(payloads, ParallelCodec::encodeSlice);
+    }
+
+    @NotNull
+    @Override
+    public List<Payload> decode(@NotNull List<Payload> payloads) {
+        return map(payloads, ParallelCodec::decodeSlice);
+    }
+
+    private List<Payload> map(List<Payload> payloads, BiFunction<List<PayloadCodec>, List<Payload>, List<Payload>> chain) {
+        if (pool == null || payloads.size() < threshold) {
+            return chain.apply(codecs, payloads);
+        }
+        int sliceSize = (payloads.size() + parallelism - 1) / parallelism;
+        List<CompletableFuture<List<Payload>>> slices = new ArrayList<>(parallelism);
+        for (int from = 0; from < payloads.size(); from += sliceSize) {
+            List<Payload> slice = payloads.subList(from, Math.min(from + sliceSize, payloads.size()));
+            slices.add(CompletableFuture.supplyAsync(() -> chain.apply(codecs, slice), pool));
+        }
+        List<Payload> result = new ArrayList<>(payloads.size());
+        for (CompletableFuture<List<Payload>> slice : slices) {
+            result.addAll(slice.join());
+        }
+        return result;
+    }
+
+    private static List<Payload> encodeSlice(List<PayloadCodec> codecs, List<Payload> payloads) {
+        for (int i = codecs.size() - 1; i >= 0; i--) {
+            payloads = codecs.get(i).encode(payloads);
+        }
+        return payloads;
+    }
+
+    private static List<Payload> decodeSlice(List<PayloadCodec> codecs, List<Payload> payloads) {
+        for (PayloadCodec codec : codecs) {
+            payloads = codec.decode(payloads);
+        }
+        return payloads;
+    }
+}
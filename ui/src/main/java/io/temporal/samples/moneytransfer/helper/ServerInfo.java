@@ -1,5 +1,7 @@
 package io.temporal.samples.moneytransfer.helper;
 
+import io.temporal.samples.moneytransfer.model.TransferInput;
+
 import java.util.HashMap;
 import java.util.Map;
 
@@ -42,6 +44,107 @@ public class ServerInfo {
         return workflowSleepDuration != 0 ? workflowSleepDuration : 5;
     }
 
+    // "production" starts transfers without the demo's progress timers
+    public static String getTransferProfile() {
+        return getEnv("TEMPORAL_TRANSFER_PROFILE", TransferInput.PROFILE_DEMO);
+    }
+
+    // start transfers that run validate as a local activity
+    public static boolean isTransferLocalActivities() {
+        return "true".equals(getEnv("TEMPORAL_TRANSFER_LOCAL_ACTIVITIES", "false"));
+    }
+
+    // node ID embedded in generated transfer IDs, -1 picks a random one
+    public static int getNodeId() {
+        return getIntEnv("TEMPORAL_NODE_ID", -1);
+    }
+
+    // web server instances sharing the namespace; more than one requires TEMPORAL_NODE_ID
+    public static int getWebInstances() {
+        return getIntEnv("TEMPORAL_WEB_INSTANCES", 1);
+    }
+
+    public static int getClientPoolSize() {
+        return Math.max(getIntEnv("TEMPORAL_CLIENT_POOL_SIZE", 1), 1);
+    }
+
+    // workflow starts in flight for one POST /transfers/bulk request
+    public static int getBulkParallelism() {
+        return Math.max(getIntEnv("TEMPORAL_BULK_PARALLELISM", 32), 1);
+    }
+
+    // how long /runQuery serves a cached status for a running transfer
+    public static int getStatusCacheTtlMillis() {
+        return Math.max(getIntEnv("TEMPORAL_STATUS_CACHE_TTL_MILLIS", 1000), 0);
+    }
+
+    public static int getStatusCacheSize() {
+        return Math.max(getIntEnv("TEMPORAL_STATUS_CACHE_SIZE", 10000), 0);
+    }
+
+    // how often the progress watcher refreshes the transfers followed over /transfers/progress
+    public static int getProgressPollMillis() {
+        return Math.max(getIntEnv("TEMPORAL_PROGRESS_POLL_MILLIS", 500), 50);
+    }
+
+    // how long one progress refresh waits for its queries, slower ones are picked up by a later refresh
+    public static int getProgressQueryTimeoutMillis() {
+        return Math.max(getIntEnv("TEMPORAL_PROGRESS_QUERY_TIMEOUT_MILLIS", 5000), 1);
+    }
+
+    // how stale the transfer index behind /listWorkflows may get before a read refreshes it
+    public static int getIndexRefreshMillis() {
+        return Math.max(getIntEnv("TEMPORAL_INDEX_REFRESH_MILLIS", 2000), 0);
+    }
+
+    // transfers started longer ago than this are dropped from the index
+    public static int getIndexRetentionMinutes() {
+        return Math.max(getIntEnv("TEMPORAL_INDEX_RETENTION_MINUTES", 60), 1);
+    }
+
+    // describe and query calls to Temporal in flight at once for /runQuery and the progress watcher
+    public static int getQueryParallelism() {
+        return Math.max(getIntEnv("TEMPORAL_QUERY_PARALLELISM", 32), 1);
+    }
+
+    // how long /getWorkflowOutcome waits for a transfer to finish before answering 504
+    public static int getOutcomeTimeoutSeconds() {
+        return Math.max(getIntEnv("TEMPORAL_OUTCOME_TIMEOUT_SECONDS", 60), 1);
+    }
+
+    // serve requests on virtual threads, needs Java 21
+    public static boolean isWebVirtualThreads() {
+        return Boolean.parseBoolean(getEnv("TEMPORAL_WEB_VIRTUAL_THREADS", "false"));
+    }
+
+    // codec endpoint requests with at least this many payloads are split across threads, 0 keeps them on one thread
+    public static int getCodecParallelThreshold() {
+        return Math.max(getIntEnv("TEMPORAL_CODEC_PARALLEL_THRESHOLD", 32), 0);
+    }
+
+    public static int getCodecParallelism() {
+        return Math.max(getIntEnv("TEMPORAL_CODEC_PARALLELISM", Runtime.getRuntime().availableProcessors()), 1);
+    }
+
+    // origin of the Temporal UI allowed to call the codec endpoint from the browser, e.g. http://localhost:8233
+    public static String getCodecCorsOrigin() {
+        return getEnv("TEMPORAL_CODEC_CORS_ORIGIN", "");
+    }
+
+    // payloads smaller than this many bytes are not compressed
+    public static int getCompressionThreshold() {
+        return Math.max(getIntEnv("TEMPORAL_COMPRESSION_THRESHOLD", 256), 0);
+    }
+
+    // tracing is on when either is set: an OTLP gRPC collector (e.g. http://localhost:4317) or a JSON lines file
+    public static String getTraceOtlpEndpoint() {
+        return getEnv("TEMPORAL_TRACE_OTLP_ENDPOINT", "");
+    }
+
+    public static String getTraceFile() {
+        return getEnv("TEMPORAL_TRACE_FILE", "");
+    }
+
     public static Map<String, String> getServerInfo() {
         Map<String, String> info = new HashMap<>();
         info.put("namespace", getNamespace());
@@ -68,4 +171,14 @@ public class ServerInfo {
         String value = System.getenv(key);
         return value != null && !value.isEmpty() ? value : defaultValue;
     }
+
+    private static int getIntEnv(String key, int defaultValue) {
+        String value = getEnv(key, String.valueOf(defaultValue));
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            System.err.println("Error parsing environment variable as an integer: " + e.getMessage());
+            return defaultValue;
+        }
+    }
 }
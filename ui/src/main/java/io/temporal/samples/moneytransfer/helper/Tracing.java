@@ -0,0 +1,77 @@
+package io.temporal.samples.moneytransfer.helper;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.propagation.W3CTraceContextPropagator;
+import io.opentelemetry.context.propagation.ContextPropagators;
+import io.opentelemetry.exporter.otlp.trace.OtlpGrpcSpanExporter;
+import io.opentelemetry.opentracingshim.OpenTracingShim;
+import io.opentelemetry.sdk.OpenTelemetrySdk;
+import io.opentelemetry.sdk.resources.Resource;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.SdkTracerProviderBuilder;
+import io.opentelemetry.sdk.trace.export.BatchSpanProcessor;
+import io.opentracing.Tracer;
+import io.temporal.opentracing.OpenTracingOptions;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * OpenTelemetry tracing for the web server, bridged to the OpenTracing API that Temporal's client interceptor uses.
+ * Configured like the worker's: TEMPORAL_TRACE_OTLP_ENDPOINT and/or TEMPORAL_TRACE_FILE, off when neither is set. The
+ * client passes the request's trace to each workflow it starts, so the worker's spans land in the same trace.
+ * <p>
+ * A deliberate copy of the worker's {@code util.Tracing}, which differs only in its service name; the two modules
+ * share no code. A change to one belongs in the other too.
+ */
+public class Tracing {
+
+    private static final String SERVICE_NAME = "money-transfer-web";
+
+    private static Tracer tracer;
+
+    public static boolean isEnabled() {
+        return !ServerInfo.getTraceOtlpEndpoint().isEmpty() || !ServerInfo.getTraceFile().isEmpty();
+    }
+
+    public static synchronized Tracer getTracer() {
+        if (tracer == null) {
+            OpenTelemetrySdk sdk = OpenTelemetrySdk.builder()
+                    .setTracerProvider(newTracerProvider())
+                    .setPropagators(ContextPropagators.create(W3CTraceContextPropagator.getInstance()))
+                    .build();
+            // flushes the spans still batched when the server stops
+            Runtime.getRuntime().addShutdownHook(new Thread(sdk::close, "tracing-shutdown"));
+            tracer = OpenTracingShim.createTracerShim(sdk);
+        }
+        return tracer;
+    }
+
+    public static OpenTracingOptions getOptions() {
+        return OpenTracingOptions.newBuilder().setTracer(getTracer()).build();
+    }
+
+    private static SdkTracerProvider newTracerProvider() {
+        SdkTracerProviderBuilder builder = SdkTracerProvider.builder()
+                .setResource(Resource.getDefault().merge(
+                        Resource.create(Attributes.of(AttributeKey.stringKey("service.name"), SERVICE_NAME))
+                ));
+
+        if (!ServerInfo.getTraceOtlpEndpoint().isEmpty()) {
+            builder.addSpanProcessor(BatchSpanProcessor.builder(
+                    OtlpGrpcSpanExporter.builder().setEndpoint(ServerInfo.getTraceOtlpEndpoint()).build()
+            ).build());
+        }
+        if (!ServerInfo.getTraceFile().isEmpty()) {
+            try {
+                builder.addSpanProcessor(
+                        BatchSpanProcessor.builder(new JsonFileSpanExporter(ServerInfo.getTraceFile())).build()
+                );
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot open trace file " + ServerInfo.getTraceFile(), e);
+            }
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,113 @@
+package io.temporal.samples.moneytransfer.helper;
+
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Time-ordered transfer IDs in the style of Snowflake: 41 bits of milliseconds since 2024-01-01, a 10 bit node ID
+ * and a 12 bit per-millisecond sequence, written as 13 Crockford base32 characters after {@code TRANSFER-}. IDs from
+ * one node are strictly increasing, and IDs sort as strings in the order they were issued, so visibility queries can
+ * select a time range with {@code WorkflowId >= lowerBound(from) AND WorkflowId < lowerBound(to)}.
+ * <p>
+ * Give every web server its own {@code TEMPORAL_NODE_ID} (0-1023). A single instance without one picks a random node ID
+ * at startup and warns about it; with {@code TEMPORAL_WEB_INSTANCES} above 1 a missing node ID fails startup, since two
+ * random picks can collide.
+ */
+public class TransferIdGenerator {
+
+    private static final String PREFIX = "TRANSFER-";
+    private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final int ENCODED_LENGTH = 13;
+
+    private static final long EPOCH_MILLIS = Instant.parse("2024-01-01T00:00:00Z").toEpochMilli();
+    private static final int NODE_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    private static final long MAX_NODE = (1L << NODE_BITS) - 1;
+
+    private static final long NODE_ID = nodeId(ServerInfo.getNodeId(), ServerInfo.getWebInstances());
+
+    // milliseconds since the epoch shifted above the sequence; a full millisecond carries into the next one
+    private static final AtomicLong state = new AtomicLong();
+
+    // the node ID this server embeds in its transfer IDs; call at startup so a bad configuration fails right away
+    public static long getNodeId() {
+        return NODE_ID;
+    }
+
+    public static String nextTransferId() {
+        long last;
+        long next;
+        do {
+            last = state.get();
+            long now = System.currentTimeMillis() - EPOCH_MILLIS;
+            // a clock that moved backwards keeps counting from the last value, so IDs never repeat or go back
+            next = now > (last >>> SEQUENCE_BITS) ? now << SEQUENCE_BITS : last + 1;
+        } while (!state.compareAndSet(last, next));
+
+        long millis = next >>> SEQUENCE_BITS;
+        long sequence = next & ((1L << SEQUENCE_BITS) - 1);
+        return encode((millis << (NODE_BITS + SEQUENCE_BITS)) | (NODE_ID << SEQUENCE_BITS) | sequence);
+    }
+
+    // the smallest ID any node can issue at the given instant
+    public static String lowerBound(Instant instant) {
+        long millis = Math.max(instant.toEpochMilli() - EPOCH_MILLIS, 0);
+        return encode(millis << (NODE_BITS + SEQUENCE_BITS));
+    }
+
+    public static Instant timestampOf(String transferId) {
+        if (!transferId.startsWith(PREFIX) || transferId.length() != PREFIX.length() + ENCODED_LENGTH) {
+            throw new IllegalArgumentException("Not a generated transfer ID: " + transferId);
+        }
+        long value = 0;
+        for (int i = PREFIX.length(); i < transferId.length(); i++) {
+            int index = indexOf(transferId.charAt(i));
+            if (index < 0) {
+                throw new IllegalArgumentException("Not a generated transfer ID: " + transferId);
+            }
+            value = (value << 5) | index;
+        }
+        return Instant.ofEpochMilli((value >>> (NODE_BITS + SEQUENCE_BITS)) + EPOCH_MILLIS);
+    }
+
+    private static String encode(long value) {
+        char[] chars = new char[PREFIX.length() + ENCODED_LENGTH];
+        PREFIX.getChars(0, PREFIX.length(), chars, 0);
+        for (int i = chars.length - 1; i >= PREFIX.length(); i--) {
+            chars[i] = ALPHABET[(int) (value & 31)];
+            value >>>= 5;
+        }
+        return new String(chars);
+    }
+
+    private static int indexOf(char c) {
+        for (int i = 0; i < ALPHABET.length; i++) {
+            if (ALPHABET[i] == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // the configured node ID, or a random one when it is unset (-1) and this is the only instance
+    static long nodeId(int nodeId, int instances) {
+        if (nodeId >= 0 && nodeId <= MAX_NODE) {
+            System.out.println("Transfer ID node: " + nodeId);
+            return nodeId;
+        }
+        if (nodeId != -1) {
+            throw new IllegalStateException("TEMPORAL_NODE_ID must be from 0 to " + MAX_NODE + ", got " + nodeId);
+        }
+        if (instances > 1) {
+            throw new IllegalStateException(
+                    "TEMPORAL_NODE_ID must be set on each of the " + instances + " web server instances,"
+                            + " random node IDs can collide and issue duplicate transfer IDs"
+            );
+        }
+        int random = new SecureRandom().nextInt((int) MAX_NODE + 1);
+        System.err.println("WARNING: TEMPORAL_NODE_ID is not set, using random transfer ID node " + random
+                + ". Set a distinct TEMPORAL_NODE_ID on every instance before running more than one.");
+        return random;
+    }
+}
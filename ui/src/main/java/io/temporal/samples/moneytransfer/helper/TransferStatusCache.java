@@ -0,0 +1,123 @@
+package io.temporal.samples.moneytransfer.helper;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.temporal.samples.moneytransfer.model.TransferStatus;
+
+import javax.net.ssl.SSLException;
+import java.io.FileNotFoundException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Transfer status by workflow ID, shared by every poll of {@code /runQuery}. Statuses of running transfers expire after
+ * a short TTL; closed transfers can't change, so their status is kept until it is evicted for space (W-TinyLFU). Polls
+ * that arrive while a status is being fetched share that fetch's future instead of starting their own.
+ */
+public class TransferStatusCache {
+
+    public interface Loader {
+        CompletableFuture<Entry> load(String workflowId) throws FileNotFoundException, SSLException;
+    }
+
+    public static class Entry {
+        private final TransferStatus status;
+        private final boolean closed;
+
+        public Entry(TransferStatus status, boolean closed) {
+            this.status = status;
+            this.closed = closed;
+        }
+
+        public TransferStatus getStatus() {
+            return status;
+        }
+
+        // the workflow is no longer running, whatever way it closed
+        public boolean isClosed() {
+            return closed;
+        }
+    }
+
+    private static final AtomicLong hits = new AtomicLong();
+    private static final AtomicLong misses = new AtomicLong();
+    private static final AtomicLong coalesced = new AtomicLong();
+    private static final AtomicLong loadFailures = new AtomicLong();
+
+    private static final AsyncCache<String, Entry> cache = Caffeine.newBuilder()
+            .maximumSize(ServerInfo.getStatusCacheSize())
+            .expireAfter(new Expiry<String, Entry>() {
+                @Override
+                public long expireAfterCreate(String workflowId, Entry entry, long currentTime) {
+                    return entry.closed
+                            ? Long.MAX_VALUE
+                            : TimeUnit.MILLISECONDS.toNanos(ServerInfo.getStatusCacheTtlMillis());
+                }
+
+                @Override
+                public long expireAfterUpdate(String workflowId, Entry entry, long currentTime, long currentDuration) {
+                    return expireAfterCreate(workflowId, entry, currentTime);
+                }
+
+                @Override
+                public long expireAfterRead(String workflowId, Entry entry, long currentTime, long currentDuration) {
+                    return currentDuration;
+                }
+            })
+            .recordStats()
+            .buildAsync();
+
+    public static CompletableFuture<TransferStatus> get(String workflowId, Loader loader) {
+        return getEntry(workflowId, loader).thenApply(Entry::getStatus);
+    }
+
+    public static CompletableFuture<Entry> getEntry(String workflowId, Loader loader) {
+        CompletableFuture<Entry> pending = new CompletableFuture<>();
+        CompletableFuture<Entry> existing = cache.asMap().putIfAbsent(workflowId, pending);
+
+        if (existing != null) {
+            if (existing.isDone()) {
+                hits.incrementAndGet();
+            } else {
+                coalesced.incrementAndGet();
+            }
+            return existing;
+        }
+
+        // this caller fetches the status, concurrent polls for the same ID wait on the pending future
+        misses.incrementAndGet();
+        CompletableFuture<Entry> loading;
+        try {
+            loading = loader.load(workflowId);
+        } catch (FileNotFoundException | SSLException | RuntimeException e) {
+            loading = CompletableFuture.failedFuture(e);
+        }
+        loading.whenComplete((entry, failure) -> {
+            if (failure != null) {
+                // failed futures are dropped from the cache, so the next poll tries again
+                loadFailures.incrementAndGet();
+                pending.completeExceptionally(failure);
+            } else {
+                pending.complete(entry);
+            }
+        });
+        return pending;
+    }
+
+    public static Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("size", cache.synchronous().estimatedSize());
+        metrics.put("hits", hits.get());
+        metrics.put("misses", misses.get());
+        metrics.put("coalesced", coalesced.get());
+        metrics.put("loadFailures", loadFailures.get());
+        metrics.put("evictions", cache.synchronous().stats().evictionCount());
+        long requests = hits.get() + misses.get() + coalesced.get();
+        metrics.put("hitRate", requests > 0 ? (double) (hits.get() + coalesced.get()) / requests : 0);
+        return metrics;
+    }
+}
@@ -0,0 +1,89 @@
+package io.temporal.samples.moneytransfer.helper;
+
+import java.time.Instant;
+
+/**
+ * Builds a visibility list filter into a single buffer, joining clauses with {@code AND}. Values are quoted here;
+ * values containing a quote are rejected rather than escaped, since visibility has no portable escape for them.
+ * <pre>
+ * new VisibilityQuery()
+ *         .startsWith("WorkflowType", "AccountTransferWorkflow")
+ *         .between("StartTime", from, to)
+ *         .build();
+ * </pre>
+ */
+public class VisibilityQuery {
+
+    private final StringBuilder query = new StringBuilder(128);
+
+    public VisibilityQuery equal(String attribute, String value) {
+        clause(attribute).append(" = ");
+        quote(value);
+        return this;
+    }
+
+    public VisibilityQuery startsWith(String attribute, String prefix) {
+        clause(attribute).append(" STARTS_WITH ");
+        quote(prefix);
+        return this;
+    }
+
+    public VisibilityQuery atOrAfter(String attribute, Instant instant) {
+        clause(attribute).append(" >= ");
+        quote(instant);
+        return this;
+    }
+
+    public VisibilityQuery between(String attribute, Instant from, Instant to) {
+        clause(attribute).append(" BETWEEN ");
+        quote(from);
+        query.append(" AND ");
+        quote(to);
+        return this;
+    }
+
+    // one parenthesized clause that matches when any of the alternatives does
+    public VisibilityQuery anyOf(VisibilityQuery... alternatives) {
+        if (query.length() > 0) {
+            query.append(" AND ");
+        }
+        query.append('(');
+        for (int i = 0; i < alternatives.length; i++) {
+            if (i > 0) {
+                query.append(" OR ");
+            }
+            query.append(alternatives[i].query);
+        }
+        query.append(')');
+        return this;
+    }
+
+    public String build() {
+        return query.toString();
+    }
+
+    @Override
+    public String toString() {
+        return build();
+    }
+
+    private StringBuilder clause(String attribute) {
+        if (query.length() > 0) {
+            query.append(" AND ");
+        }
+        return query.append(attribute);
+    }
+
+    private void quote(String value) {
+        if (value.indexOf('\'') >= 0) {
+            throw new IllegalArgumentException("Visibility query values must not contain quotes: " + value);
+        }
+        query.append('\'').append(value).append('\'');
+    }
+
+    private void quote(Instant instant) {
+        query.append('\'');
+        VisibilityTime.formatTo(instant, query);
+        query.append('\'');
+    }
+}
@@ -0,0 +1,31 @@
+package io.temporal.samples.moneytransfer.helper;
+
+import com.google.protobuf.Timestamp;
+
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+
+/**
+ * Instants in the RFC 3339 form visibility queries expect, always UTC with nanosecond precision, e.g.
+ * {@code 2024-06-01T12:00:00.123456789Z}. The formatter is immutable and thread-safe, so one instance serves every
+ * request, and {@link #formatTo} appends straight into a query under construction.
+ */
+public class VisibilityTime {
+
+    private static final DateTimeFormatter FORMATTER = new DateTimeFormatterBuilder()
+            .appendInstant(9)
+            .toFormatter();
+
+    public static String format(Instant instant) {
+        return FORMATTER.format(instant);
+    }
+
+    public static void formatTo(Instant instant, StringBuilder out) {
+        FORMATTER.formatTo(instant, out);
+    }
+
+    public static Instant toInstant(Timestamp timestamp) {
+        return Instant.ofEpochSecond(timestamp.getSeconds(), timestamp.getNanos());
+    }
+}
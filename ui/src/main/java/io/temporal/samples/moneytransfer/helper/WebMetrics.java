@@ -0,0 +1,39 @@
+package io.temporal.samples.moneytransfer.helper;
+
+import com.uber.m3.tally.RootScopeBuilder;
+import com.uber.m3.tally.Scope;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import io.temporal.common.reporter.MicrometerClientStatsReporter;
+
+/**
+ * Prometheus registry for the web server, served on {@code /metrics}. It holds the request meters, the client
+ * connection meters and the SDK's own metrics, which include the latency of every gRPC call by RPC name.
+ */
+public class WebMetrics {
+
+    private static final PrometheusMeterRegistry REGISTRY = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+
+    // the SDK reports through tally, which flushes its aggregates to the registry on this interval
+    private static final com.uber.m3.util.Duration REPORT_INTERVAL = com.uber.m3.util.Duration.ofSeconds(10);
+
+    private static Scope scope;
+
+    public static PrometheusMeterRegistry getRegistry() {
+        return REGISTRY;
+    }
+
+    // one scope for every pooled connection, so their SDK metrics add up instead of overwriting each other
+    public static synchronized Scope getScope() {
+        if (scope == null) {
+            scope = new RootScopeBuilder()
+                    .reporter(new MicrometerClientStatsReporter(REGISTRY))
+                    .reportEvery(REPORT_INTERVAL);
+        }
+        return scope;
+    }
+
+    public static String scrape() {
+        return REGISTRY.scrape();
+    }
+}
@@ -0,0 +1,16 @@
+package io.temporal.samples.moneytransfer.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransferFilter {
+    // visibility ExecutionStatus, e.g. Running or Failed, any case
+    private String status;
+    private ExecutionScenario scenario;
+    // value of the Step search attribute, e.g. Withdraw
+    private String step;
+}
@@ -8,7 +8,24 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @AllArgsConstructor
 public class TransferInput {
+    public static final String PROFILE_DEMO = "demo";
+    public static final String PROFILE_PRODUCTION = "production";
+
     private int amount;
     private String fromAccount;
     private String toAccount;
+
+    // "demo" (default) paces the transfer with progress timers for the UI, "production" runs the steps back to back
+    private String profile;
+
+    // run validate as a local activity; chosen at start and kept in the input so replay always takes the same branch
+    private boolean localActivities;
+
+    public TransferInput(int amount, String fromAccount, String toAccount) {
+        this(amount, fromAccount, toAccount, null);
+    }
+
+    public TransferInput(int amount, String fromAccount, String toAccount, String profile) {
+        this(amount, fromAccount, toAccount, profile, false);
+    }
 }
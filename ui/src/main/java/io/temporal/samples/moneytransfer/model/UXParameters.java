@@ -1,5 +1,6 @@
 package io.temporal.samples.moneytransfer.model;
 
+import io.temporal.samples.moneytransfer.helper.ServerInfo;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -12,6 +13,12 @@ public class UXParameters {
     private ExecutionScenario scenario;
 
     public TransferInput toTransferInput() {
-        return new TransferInput(this.amount, "fromAccount", "toAccount");
+        return new TransferInput(
+                this.amount,
+                "fromAccount",
+                "toAccount",
+                ServerInfo.getTransferProfile(),
+                ServerInfo.isTransferLocalActivities()
+        );
     }
 }
@@ -0,0 +1,16 @@
+package io.temporal.samples.moneytransfer.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WorkflowPage {
+    private List<WorkflowStatus> workflows;
+    // pass back as pageToken for the next page, null on the last page
+    private String nextPageToken;
+}
@@ -0,0 +1,65 @@
+package io.temporal.samples.moneytransfer.web;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.util.JsonFormat;
+import io.javalin.http.Context;
+import io.javalin.http.Handler;
+import io.temporal.api.common.v1.Payload;
+import io.temporal.api.common.v1.Payloads;
+import io.temporal.payload.codec.PayloadCodec;
+import io.temporal.samples.moneytransfer.TemporalClient;
+import io.temporal.samples.moneytransfer.dataconverter.ParallelCodec;
+import io.temporal.samples.moneytransfer.helper.ServerInfo;
+
+import java.util.AbstractMap;
+import java.util.List;
+import java.util.function.BiFunction;
+
+/**
+ * The remote codec endpoint the Temporal UI and CLI call to show encrypted or compressed payloads. The body is a
+ * {@code Payloads} message in protobuf JSON, {@code {"payloads": [...]}}, and the answer is the same shape. The UI sends
+ * a whole history's payloads in one request, so the configured codecs run through a {@link ParallelCodec}.
+ */
+class CodecEndpoint {
+
+    private static volatile ParallelCodec codec;
+
+    static Handler encode() {
+        return ctx -> handle(ctx, PayloadCodec::encode);
+    }
+
+    static Handler decode() {
+        return ctx -> handle(ctx, PayloadCodec::decode);
+    }
+
+    private static void handle(Context ctx, BiFunction<PayloadCodec, List<Payload>, List<Payload>> op) {
+        try {
+            ctx.contentType("application/json").result(apply(ctx.body(), getCodec(), op));
+        } catch (InvalidProtocolBufferException e) {
+            ctx.status(400).json(new AbstractMap.SimpleEntry<>("message", "Invalid payloads: " + e.getMessage()));
+        }
+    }
+
+    static String apply(String body, PayloadCodec codec, BiFunction<PayloadCodec, List<Payload>, List<Payload>> op)
+            throws InvalidProtocolBufferException {
+        Payloads.Builder payloads = Payloads.newBuilder();
+        JsonFormat.parser().ignoringUnknownFields().merge(body, payloads);
+        Payloads result = Payloads.newBuilder().addAllPayloads(op.apply(codec, payloads.getPayloadsList())).build();
+        return JsonFormat.printer().omittingInsignificantWhitespace().print(result);
+    }
+
+    private static ParallelCodec getCodec() {
+        if (codec == null) {
+            synchronized (CodecEndpoint.class) {
+                if (codec == null) {
+                    codec = new ParallelCodec(
+                            TemporalClient.getCodecs(),
+                            ServerInfo.getCodecParallelThreshold(),
+                            ServerInfo.getCodecParallelism()
+                    );
+                }
+            }
+        }
+        return codec;
+    }
+}
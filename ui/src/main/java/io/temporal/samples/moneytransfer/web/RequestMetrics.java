@@ -0,0 +1,76 @@
+package io.temporal.samples.moneytransfer.web;
+
+import io.javalin.http.Context;
+import io.javalin.http.Handler;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.temporal.samples.moneytransfer.helper.WebMetrics;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Latency histograms and in-flight gauges per route. {@link #timed(Handler)} marks a request as it enters its route and
+ * {@link #requestDone(Context, Float)}, Javalin's request logger, closes it once the response is complete, so
+ * requests answered from a future are timed until the future completes rather than until their handler returns.
+ * Meters are created once per route and status class, a request only does map lookups and two clock reads.
+ */
+class RequestMetrics {
+
+    private static final String ROUTE_ATTRIBUTE = "metrics.route";
+    private static final String START_ATTRIBUTE = "metrics.start";
+
+    private static final MeterRegistry registry = WebMetrics.getRegistry();
+    private static final Map<String, AtomicInteger> inFlight = new ConcurrentHashMap<>();
+    private static final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    static Handler timed(Handler handler) {
+        return ctx -> {
+            String route = ctx.method().name() + " " + ctx.endpointHandlerPath();
+            ctx.attribute(ROUTE_ATTRIBUTE, route);
+            ctx.attribute(START_ATTRIBUTE, System.nanoTime());
+            inFlight.computeIfAbsent(route, RequestMetrics::newInFlightGauge).incrementAndGet();
+            handler.handle(ctx);
+        };
+    }
+
+    static void requestDone(Context ctx, Float executionTimeMs) {
+        String route = ctx.attribute(ROUTE_ATTRIBUTE);
+        Long start = ctx.attribute(START_ATTRIBUTE);
+        if (route == null || start == null) {
+            // static files and routes that aren't timed
+            return;
+        }
+        inFlight.get(route).decrementAndGet();
+
+        String status = ctx.statusCode() / 100 + "xx";
+        timers.computeIfAbsent(route + " " + status, key -> newTimer(ctx, status))
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    private static AtomicInteger newInFlightGauge(String route) {
+        AtomicInteger count = new AtomicInteger();
+        Gauge.builder("transfer.http.inflight", count, AtomicInteger::get)
+                .description("Requests being handled")
+                .tag("method", route.substring(0, route.indexOf(' ')))
+                .tag("route", route.substring(route.indexOf(' ') + 1))
+                .register(registry);
+        return count;
+    }
+
+    private static Timer newTimer(Context ctx, String status) {
+        return Timer.builder("transfer.http.requests")
+                .description("Time from a request reaching its route until its response is complete")
+                .tag("method", ctx.method().name())
+                .tag("route", ctx.endpointHandlerPath())
+                .tag("status", status)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofSeconds(60))
+                .register(registry);
+    }
+}
@@ -0,0 +1,47 @@
+package io.temporal.samples.moneytransfer.web;
+
+import io.javalin.http.Handler;
+import io.opentracing.Scope;
+import io.opentracing.Span;
+import io.opentracing.SpanContext;
+import io.opentracing.Tracer;
+import io.opentracing.propagation.Format;
+import io.opentracing.propagation.TextMapAdapter;
+import io.opentracing.tag.Tags;
+import io.temporal.samples.moneytransfer.helper.Tracing;
+
+/**
+ * Server spans for the routes that start or signal transfers. The span continues an incoming W3C {@code traceparent}
+ * if the caller sent one and is active while the handler runs, so the Temporal client interceptor makes it the parent
+ * of the workflow it starts. With tracing off the handler is returned as is.
+ */
+class RequestTracing {
+
+    // the scope is only there to make the span active for the handler and to deactivate it on close, so javac's
+    // "resource never referenced" lint is expected here
+    @SuppressWarnings("try")
+    static Handler traced(Handler handler) {
+        if (!Tracing.isEnabled()) {
+            return handler;
+        }
+        Tracer tracer = Tracing.getTracer();
+        return ctx -> {
+            SpanContext parent = tracer.extract(Format.Builtin.HTTP_HEADERS, new TextMapAdapter(ctx.headerMap()));
+            Span span = tracer.buildSpan(ctx.method().name() + " " + ctx.endpointHandlerPath())
+                    .asChildOf(parent)
+                    .withTag(Tags.SPAN_KIND, Tags.SPAN_KIND_SERVER)
+                    .withTag(Tags.HTTP_METHOD, ctx.method().name())
+                    .withTag(Tags.HTTP_URL, ctx.url())
+                    .start();
+            try (Scope scope = tracer.activateSpan(span)) {
+                handler.handle(ctx);
+            } catch (Exception e) {
+                Tags.ERROR.set(span, true);
+                throw e;
+            } finally {
+                Tags.HTTP_STATUS.set(span, ctx.statusCode());
+                span.finish();
+            }
+        };
+    }
+}
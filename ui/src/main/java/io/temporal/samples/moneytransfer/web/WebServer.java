@@ -1,53 +1,129 @@
 package io.temporal.samples.moneytransfer.web;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.javalin.Javalin;
+import io.javalin.json.JavalinJackson;
+import io.javalin.util.ConcurrencyUtil;
+import io.temporal.samples.moneytransfer.TemporalClient;
+import io.temporal.samples.moneytransfer.TransferIndex;
+import io.temporal.samples.moneytransfer.TransferLister;
 import io.temporal.samples.moneytransfer.helper.ServerInfo;
+import io.temporal.samples.moneytransfer.helper.TransferIdGenerator;
+import io.temporal.samples.moneytransfer.helper.TransferStatusCache;
+import io.temporal.samples.moneytransfer.helper.WebMetrics;
 import io.temporal.samples.moneytransfer.model.*;
 
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
 import java.util.AbstractMap;
-import java.util.List;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
+import static io.temporal.samples.moneytransfer.BulkTransferRequester.getBulkMetrics;
+import static io.temporal.samples.moneytransfer.BulkTransferRequester.runBulk;
 import static io.temporal.samples.moneytransfer.TransferLister.listWorkflows;
+import static io.temporal.samples.moneytransfer.TransferLister.streamWorkflows;
+import static io.temporal.samples.moneytransfer.TransferProgressWatcher.getWatcherMetrics;
+import static io.temporal.samples.moneytransfer.TransferProgressWatcher.subscribe;
 import static io.temporal.samples.moneytransfer.TransferRequester.*;
 import static io.temporal.samples.moneytransfer.TransferScheduler.runSchedule;
+import static io.temporal.samples.moneytransfer.web.RequestMetrics.timed;
+import static io.temporal.samples.moneytransfer.web.RequestTracing.traced;
 
 public class WebServer {
 
+    // one mapper for ctx.json/bodyAsClass and the endpoints that stream JSON themselves
+    public static final ObjectMapper MAPPER = JavalinJackson.Companion.defaultMapper();
+
     public static void main(String[] args) {
+        // Javalin runs Jetty on virtual threads whenever the JVM supports them, unless told otherwise
+        ConcurrencyUtil.INSTANCE.setUseLoom(isVirtualThreads());
+        // settles the transfer ID node before serving, a missing node ID on a scaled out deployment stops here
+        TransferIdGenerator.getNodeId();
+
         Javalin app = Javalin.create(config -> {
             config.staticFiles.add(staticFiles -> {
                 staticFiles.hostedPath = "/";
                 staticFiles.directory = "svelte_ui";
             });
+            config.jsonMapper(new JavalinJackson(MAPPER));
+            if (!ServerInfo.getCodecCorsOrigin().isEmpty()) {
+                // the Temporal UI calls the codec endpoint from the browser, with the user's credentials
+                config.plugins.enableCors(cors -> cors.add(rule -> {
+                    rule.allowHost(ServerInfo.getCodecCorsOrigin());
+                    rule.allowCredentials = true;
+                }));
+            }
+            // closes the timing started by timed(...) once the response, async or not, is complete
+            config.requestLogger.http(RequestMetrics::requestDone);
         });
 
-        app.get("/serverinfo", ctx -> {
-            ctx.json(ServerInfo.getServerInfo());
+        app.get("/metrics", ctx -> {
+            ctx.contentType("text/plain; version=0.0.4; charset=utf-8").result(WebMetrics.scrape());
         });
 
-        app.post("/runWorkflow", ctx -> {
+        app.get("/serverinfo", timed(ctx -> {
+            ctx.json(ServerInfo.getServerInfo());
+        }));
+
+        app.get("/clientMetrics", timed(ctx -> {
+            ctx.json(TemporalClient.getConnectionMetrics());
+        }));
+
+        app.post("/runWorkflow", timed(traced(ctx -> {
             UXParameters uxParameters = ctx.bodyAsClass(UXParameters.class);
             TransferInput transferInput = uxParameters.toTransferInput();
             String transferId = runWorkflow(transferInput, uxParameters.getScenario());
             ctx.json(new AbstractMap.SimpleEntry<>("transferId", transferId));
-        });
+        })));
 
-        app.post("/scheduleWorkflow", ctx -> {
+        app.post("/transfers/bulk", timed(ctx -> {
+            // body is a JSON array or NDJSON of UXParameters, one NDJSON result line is streamed back per transfer
+            ctx.contentType("application/x-ndjson");
+            runBulk(ctx.bodyInputStream(), ctx.res().getOutputStream());
+        }));
+
+        app.get("/transfers/bulk/metrics", timed(ctx -> {
+            ctx.json(getBulkMetrics());
+        }));
+
+        app.post("/scheduleWorkflow", timed(ctx -> {
             ScheduleParameters scheduleParameters = ctx.bodyAsClass(ScheduleParameters.class);
             String transferId = runSchedule(scheduleParameters);
             ctx.json(new AbstractMap.SimpleEntry<>("transferId", transferId));
-        });
+        }));
 
-        app.post("/runQuery", ctx -> {
+        app.post("/runQuery", timed(ctx -> {
             // get workflowId from request POST body
             WorkflowId workflowIdObj = ctx.bodyAsClass(WorkflowId.class);
             String workflowId = workflowIdObj.getWorkflowId();
-            TransferStatus transferState = runQuery(workflowId);
-            ctx.json(transferState);
+            ctx.future(() -> runQueryAsync(workflowId).thenAccept(ctx::json));
+        }));
+
+        // server-sent progress events for the transfers in ?workflowIds=a,b,c
+        app.sse("/transfers/progress", client -> {
+            String workflowIds = client.ctx().queryParam("workflowIds");
+            if (workflowIds == null || workflowIds.isBlank()) {
+                client.sendEvent("error", "workflowIds is required");
+                client.close();
+                return;
+            }
+            subscribe(client, Arrays.asList(workflowIds.split(",")));
         });
 
-        app.post("/getWorkflowOutcome", ctx -> {
+        app.get("/transfers/progress/metrics", timed(ctx -> {
+            ctx.json(getWatcherMetrics());
+        }));
+
+        app.get("/statusCacheMetrics", timed(ctx -> {
+            ctx.json(TransferStatusCache.getMetrics());
+        }));
+
+        app.post("/getWorkflowOutcome", timed(ctx -> {
             if (ctx.formParam("workflowId") == null) {
                 ctx.json(new AbstractMap.SimpleEntry<>("message", "workflowId is required"));
                 return;
@@ -55,37 +131,115 @@ public class WebServer {
 
             // get workflowId from request POST body
             String workflowId = ctx.formParam("workflowId");
-            TransferOutput workflowOutcome = getWorkflowOutcome(workflowId);
-            ctx.json(workflowOutcome);
-        });
+            CompletableFuture<TransferOutput> workflowOutcome = getWorkflowOutcome(workflowId);
+            ctx.future(() -> workflowOutcome.handle((outcome, failure) -> {
+                if (failure == null) {
+                    ctx.json(outcome);
+                } else if (failure instanceof TimeoutException || failure.getCause() instanceof TimeoutException) {
+                    ctx.status(504).json(new AbstractMap.SimpleEntry<>("message", "Transfer has not finished yet"));
+                } else {
+                    throw new CompletionException(failure);
+                }
+                return null;
+            }));
+        }));
+
+        app.get("/listWorkflows", timed(ctx -> {
+            // ?from=&to= are ISO-8601 instants (default: the last hour), ?status= is a visibility ExecutionStatus,
+            // ?scenario= an ExecutionScenario and ?step= a value of the Step search attribute
+            Instant to;
+            Instant from;
+            try {
+                to = ctx.queryParam("to") != null ? Instant.parse(ctx.queryParam("to")) : Instant.now();
+                from = ctx.queryParam("from") != null
+                        ? Instant.parse(ctx.queryParam("from"))
+                        : to.minus(TransferLister.DEFAULT_WINDOW);
+            } catch (DateTimeParseException e) {
+                ctx.status(400).json(new AbstractMap.SimpleEntry<>("message", "from and to must be ISO-8601 instants"));
+                return;
+            }
 
-        app.get("/listWorkflows", ctx -> {
-            List<WorkflowStatus> workflowList = listWorkflows();
-            ctx.json(workflowList);
-        });
+            try {
+                TransferFilter filter = new TransferFilter(
+                        ctx.queryParam("status"),
+                        toScenario(ctx.queryParam("scenario")),
+                        ctx.queryParam("step")
+                );
+                if (ctx.queryParam("pageSize") != null) {
+                    // one page and a token for the next one
+                    int pageSize = Integer.parseInt(ctx.queryParam("pageSize"));
+                    ctx.json(listWorkflows(from, to, filter, pageSize, ctx.queryParam("pageToken")));
+                } else if (ctx.queryParam("from") == null && ctx.queryParam("to") == null) {
+                    // the dashboard's view of recent transfers comes from the incrementally refreshed index
+                    ctx.json(TransferIndex.list(filter));
+                } else {
+                    // other windows are streamed from visibility as a plain array
+                    ctx.contentType("application/json");
+                    streamWorkflows(from, to, filter, ctx.res().getOutputStream());
+                }
+            } catch (IllegalArgumentException e) {
+                ctx.status(400).json(new AbstractMap.SimpleEntry<>("message", e.getMessage()));
+            }
+        }));
+
+        app.get("/listWorkflows/metrics", timed(ctx -> {
+            ctx.json(TransferIndex.getIndexMetrics());
+        }));
 
-        app.get("/test", ctx -> ctx.result("Hello Javalin!"));
+        app.get("/test", timed(ctx -> ctx.result("Hello Javalin!")));
 
-        app.get("/simulateDelay", ctx -> {
+        app.get("/simulateDelay", timed(ctx -> {
             String seconds_param = ctx.queryParam("s");
             if (seconds_param != null) {
                 int seconds = Integer.parseInt(seconds_param);
                 System.out.println("Simulating API response delay: " + seconds);
-                TimeUnit.SECONDS.sleep(seconds);
-                ctx.result("Delay finished after " + seconds + " seconds");
+                // completes from a timer, no request thread waits out the delay
+                Executor delayed = CompletableFuture.delayedExecutor(seconds, TimeUnit.SECONDS);
+                ctx.future(() -> CompletableFuture.runAsync(
+                        () -> ctx.result("Delay finished after " + seconds + " seconds"),
+                        delayed
+                ));
             } else {
                 ctx.result("use query param s to specify seconds to delay");
             }
-        });
+        }));
 
-        app.post("/approveTransfer", ctx -> {
+        // remote codec for the Temporal UI and CLI, e.g. temporal workflow show --codec-endpoint http://localhost:7070/codec
+        app.post("/codec/encode", timed(CodecEndpoint.encode()));
+        app.post("/codec/decode", timed(CodecEndpoint.decode()));
+
+        app.post("/approveTransfer", timed(traced(ctx -> {
             // get workflowId from request POST body
             WorkflowId workflowIdObj = ctx.bodyAsClass(WorkflowId.class);
             String workflowId = workflowIdObj.getWorkflowId();
             runApproveSignal(workflowId);
             ctx.result("{\"signal\": \"sent\"}");
-        });
+        })));
 
         app.start(7070);
     }
+
+    private static boolean isVirtualThreads() {
+        if (!ServerInfo.isWebVirtualThreads()) {
+            return false;
+        }
+        if (Runtime.version().feature() < 21) {
+            throw new IllegalStateException(
+                    "TEMPORAL_WEB_VIRTUAL_THREADS requires Java 21 or later, running on " + Runtime.version()
+            );
+        }
+        return true;
+    }
+
+    private static ExecutionScenario toScenario(String scenario) {
+        if (scenario == null || scenario.isEmpty()) {
+            return null;
+        }
+        for (ExecutionScenario executionScenario : ExecutionScenario.values()) {
+            if (executionScenario.name().equalsIgnoreCase(scenario)) {
+                return executionScenario;
+            }
+        }
+        throw new IllegalArgumentException("scenario must be one of " + Arrays.toString(ExecutionScenario.values()));
+    }
 }
@@ -0,0 +1,104 @@
+package io.temporal.samples.moneytransfer;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.temporal.samples.moneytransfer.model.UXParameters;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static io.temporal.samples.moneytransfer.web.WebServer.MAPPER;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class BulkTransferRequesterTest {
+
+    // stands in for the workflow start, the transfer ID echoes the amount
+    private static final BulkTransferRequester.Starter STARTER = uxParameters -> "transfer-" + uxParameters.getAmount();
+
+    /**
+     * Test a JSON array body starts one transfer per element
+     */
+    @Test
+    public void testArrayInput() throws Exception {
+        List<JsonNode> lines = runBulk("[{\"amount\": 10}, {\"amount\": 20}, {\"amount\": 30}]");
+
+        assertEquals(4, lines.size());
+        List<JsonNode> results = results(lines);
+        for (int i = 0; i < 3; i++) {
+            assertEquals(i, results.get(i).get("index").asInt());
+            assertEquals("transfer-" + (i + 1) * 10, results.get(i).get("transferId").asText());
+        }
+        assertSummary(lines, 3, 3, 0);
+    }
+
+    /**
+     * Test an NDJSON body starts one transfer per line, and a failed start is reported on its own line
+     */
+    @Test
+    public void testNdjsonInput() throws Exception {
+        BulkTransferRequester.Starter failSecond = uxParameters -> {
+            if (uxParameters.getAmount() == 2) {
+                throw new IllegalStateException("start rejected");
+            }
+            return STARTER.start(uxParameters);
+        };
+        List<JsonNode> lines = runBulk("{\"amount\": 1}\n{\"amount\": 2}\n{\"amount\": 3}\n", failSecond);
+
+        List<JsonNode> results = results(lines);
+        assertEquals(3, results.size());
+        assertEquals("transfer-1", results.get(0).get("transferId").asText());
+        assertTrue(results.get(1).get("error").asText().contains("start rejected"));
+        assertEquals("transfer-3", results.get(2).get("transferId").asText());
+        assertSummary(lines, 3, 2, 1);
+    }
+
+    /**
+     * Test a malformed line ends the stream, the transfers before it are still started and reported
+     */
+    @Test
+    public void testMalformedLine() throws Exception {
+        List<JsonNode> lines = runBulk("{\"amount\": 1}\n{\"amount\": 2}\nnot json\n{\"amount\": 4}\n");
+
+        List<JsonNode> results = results(lines);
+        assertEquals(3, results.size());
+        assertEquals("transfer-1", results.get(0).get("transferId").asText());
+        assertEquals("transfer-2", results.get(1).get("transferId").asText());
+        assertEquals(2, results.get(2).get("index").asInt());
+        assertTrue(results.get(2).get("error").asText().startsWith("Malformed input"));
+        assertSummary(lines, 2, 2, 0);
+    }
+
+    private static List<JsonNode> runBulk(String body) throws Exception {
+        return runBulk(body, STARTER);
+    }
+
+    private static List<JsonNode> runBulk(String body, BulkTransferRequester.Starter starter) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BulkTransferRequester.runBulk(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), out, starter);
+
+        List<JsonNode> lines = new ArrayList<>();
+        for (String line : out.toString(StandardCharsets.UTF_8).split("\n")) {
+            lines.add(MAPPER.readTree(line));
+        }
+        return lines;
+    }
+
+    // result lines are written as starts finish, so order them by index
+    private static List<JsonNode> results(List<JsonNode> lines) {
+        List<JsonNode> results = new ArrayList<>(lines.subList(0, lines.size() - 1));
+        results.sort(Comparator.comparingInt(line -> line.get("index").asInt()));
+        return results;
+    }
+
+    private static void assertSummary(List<JsonNode> lines, int submitted, int started, int failed) {
+        JsonNode summary = lines.get(lines.size() - 1).get("summary");
+        assertEquals(submitted, summary.get("submitted").asInt());
+        assertEquals(started, summary.get("started").asInt());
+        assertEquals(failed, summary.get("failed").asInt());
+    }
+}
@@ -0,0 +1,37 @@
+package io.temporal.samples.moneytransfer;
+
+import org.junit.Test;
+
+import java.time.Instant;
+
+import static org.junit.Assert.assertEquals;
+
+public class TransferIndexTest {
+
+    /**
+     * Test the first refresh seeds the index with every transfer started within the retention window
+     */
+    @Test
+    public void testSeedQuery() {
+        assertEquals(
+                "WorkflowType STARTS_WITH 'AccountTransferWorkflow' AND StartTime >= '2024-06-01T11:00:00.000000000Z'",
+                TransferIndex.refreshQuery(null, Instant.parse("2024-06-01T11:00:00Z"))
+        );
+    }
+
+    /**
+     * Test later refreshes fetch running transfers and those started or closed since just before the last refresh
+     */
+    @Test
+    public void testIncrementalQuery() {
+        assertEquals(
+                "WorkflowType STARTS_WITH 'AccountTransferWorkflow' AND (ExecutionStatus = 'Running'"
+                        + " OR StartTime >= '2024-06-01T11:59:55.500000000Z'"
+                        + " OR CloseTime >= '2024-06-01T11:59:55.500000000Z')",
+                TransferIndex.refreshQuery(
+                        Instant.parse("2024-06-01T12:00:00.5Z"),
+                        Instant.parse("2024-06-01T11:00:00Z")
+                )
+        );
+    }
+}
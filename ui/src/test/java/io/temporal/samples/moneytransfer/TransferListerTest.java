@@ -0,0 +1,73 @@
+package io.temporal.samples.moneytransfer;
+
+import io.temporal.samples.moneytransfer.model.ExecutionScenario;
+import io.temporal.samples.moneytransfer.model.TransferFilter;
+import org.junit.Test;
+
+import java.time.Instant;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+
+public class TransferListerTest {
+
+    /**
+     * Test an empty filter matches every transfer workflow type
+     */
+    @Test
+    public void testEmptyFilterQuery() {
+        assertEquals(
+                "WorkflowType STARTS_WITH 'AccountTransferWorkflow'",
+                TransferLister.filterQuery(new TransferFilter()).build()
+        );
+    }
+
+    /**
+     * Test a full filter, with the status normalized to the case visibility expects
+     */
+    @Test
+    public void testFullFilterQuery() {
+        TransferFilter filter = new TransferFilter("failed", ExecutionScenario.HUMAN_IN_LOOP, "Withdraw");
+        assertEquals(
+                "WorkflowType = 'AccountTransferWorkflowHumanInLoop'"
+                        + " AND ExecutionStatus = 'Failed' AND Step = 'Withdraw'",
+                TransferLister.filterQuery(filter).build()
+        );
+    }
+
+    /**
+     * Test the time range is appended to the filter
+     */
+    @Test
+    public void testBuildQuery() {
+        assertEquals(
+                "WorkflowType STARTS_WITH 'AccountTransferWorkflow' AND ExecutionStatus = 'TimedOut'"
+                        + " AND StartTime BETWEEN '2024-06-01T12:00:00.000000000Z'"
+                        + " AND '2024-06-01T13:00:00.000000000Z'",
+                TransferLister.buildQuery(
+                        Instant.parse("2024-06-01T12:00:00Z"),
+                        Instant.parse("2024-06-01T13:00:00Z"),
+                        new TransferFilter("TIMEDOUT", null, null)
+                )
+        );
+    }
+
+    /**
+     * Test unknown statuses and a reversed range are rejected
+     */
+    @Test
+    public void testInvalidFilterRejected() {
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> TransferLister.filterQuery(new TransferFilter("Running' OR 'a' = 'a", null, null))
+        );
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> TransferLister.buildQuery(
+                        Instant.parse("2024-06-01T13:00:00Z"),
+                        Instant.parse("2024-06-01T12:00:00Z"),
+                        new TransferFilter()
+                )
+        );
+    }
+}
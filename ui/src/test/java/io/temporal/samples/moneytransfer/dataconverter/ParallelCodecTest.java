@@ -0,0 +1,75 @@
+package io.temporal.samples.moneytransfer.dataconverter;
+
+import com.google.protobuf.ByteString;
+import io.temporal.api.common.v1.Payload;
+import io.temporal.common.converter.EncodingKeys;
+import io.temporal.payload.codec.PayloadCodec;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+public class ParallelCodecTest {
+
+    private static List<Payload> payloads(int count) {
+        List<Payload> payloads = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            payloads.add(Payload.newBuilder()
+                    .putMetadata(EncodingKeys.METADATA_ENCODING_KEY, ByteString.copyFromUtf8("json/plain"))
+                    .setData(ByteString.copyFromUtf8("{\"amount\":" + i + ",\"note\":\"" + "x".repeat(300) + "\"}"))
+                    .build());
+        }
+        return payloads;
+    }
+
+    /**
+     * Test a list split across threads comes back in input order through the whole chain
+     */
+    @Test
+    public void testParallelRoundTripKeepsOrder() {
+        ParallelCodec codec = new ParallelCodec(List.of(new CryptCodec(), new CompressionCodec()), 8, 4);
+        List<Payload> plain = payloads(101);
+
+        List<Payload> encoded = codec.encode(plain);
+        assertEquals(plain.size(), encoded.size());
+        assertNotEquals(plain.get(0), encoded.get(0));
+        assertEquals(plain, codec.decode(encoded));
+    }
+
+    /**
+     * Test the parallel codec writes what the serial codecs read, above and below the threshold
+     */
+    @Test
+    public void testMatchesSerialCodecs() {
+        CryptCodec crypt = new CryptCodec();
+        ParallelCodec codec = new ParallelCodec(List.of(crypt), 16, 4);
+
+        for (int count : new int[]{1, 15, 16, 64}) {
+            List<Payload> plain = payloads(count);
+            assertEquals(plain, crypt.decode(codec.encode(plain)));
+            assertEquals(plain, codec.decode(crypt.encode(plain)));
+        }
+    }
+
+    /**
+     * Test a codec chain that fails in a worker thread surfaces the failure to the caller
+     */
+    @Test(expected = RuntimeException.class)
+    public void testFailureInSlicePropagates() {
+        PayloadCodec failing = new PayloadCodec() {
+            @Override
+            public List<Payload> encode(List<Payload> payloads) {
+                return payloads;
+            }
+
+            @Override
+            public List<Payload> decode(List<Payload> payloads) {
+                throw new IllegalStateException("bad payload");
+            }
+        };
+        new ParallelCodec(List.of(failing), 2, 2).decode(payloads(10));
+    }
+}
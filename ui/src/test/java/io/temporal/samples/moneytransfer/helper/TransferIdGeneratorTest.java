@@ -0,0 +1,100 @@
+package io.temporal.samples.moneytransfer.helper;
+
+import org.junit.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+public class TransferIdGeneratorTest {
+
+    /**
+     * Test IDs issued from many threads at once never repeat
+     */
+    @Test
+    public void testUniqueUnderConcurrentCalls() throws Exception {
+        int threads = 8;
+        int idsPerThread = 20_000;
+        Set<String> ids = ConcurrentHashMap.newKeySet();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < idsPerThread; i++) {
+                        ids.add(TransferIdGenerator.nextTransferId());
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(threads * idsPerThread, ids.size());
+    }
+
+    /**
+     * Test IDs sort as strings in the order they were issued, many of them within the same millisecond
+     */
+    @Test
+    public void testMonotonicOrdering() {
+        String previous = TransferIdGenerator.nextTransferId();
+        for (int i = 0; i < 10_000; i++) {
+            String next = TransferIdGenerator.nextTransferId();
+            assertTrue(previous + " then " + next, next.compareTo(previous) > 0);
+            previous = next;
+        }
+    }
+
+    /**
+     * Test the timestamp round trips and an ID sorts at or after the lower bound of when it was issued
+     */
+    @Test
+    public void testTimestampAndLowerBound() {
+        Instant before = Instant.ofEpochMilli(System.currentTimeMillis());
+        String id = TransferIdGenerator.nextTransferId();
+
+        assertFalse(TransferIdGenerator.timestampOf(id).isBefore(before));
+        assertTrue(id.compareTo(TransferIdGenerator.lowerBound(before)) >= 0);
+        assertEquals(before, TransferIdGenerator.timestampOf(TransferIdGenerator.lowerBound(before)));
+    }
+
+    /**
+     * Test a TEMPORAL_NODE_ID in range is used as is, and an unset one falls back to a random node for one instance
+     */
+    @Test
+    public void testNodeIdRangeFallback() {
+        assertEquals(0, TransferIdGenerator.nodeId(0, 1));
+        assertEquals(1023, TransferIdGenerator.nodeId(1023, 3));
+        long fallback = TransferIdGenerator.nodeId(-1, 1);
+        assertTrue("node ID " + fallback, fallback >= 0 && fallback <= 1023);
+    }
+
+    /**
+     * Test an out of range TEMPORAL_NODE_ID, or none with several instances, fails instead of picking a random node
+     */
+    @Test
+    public void testNodeIdMisconfigured() {
+        for (int nodeId : new int[] {-2, 1024, Integer.MAX_VALUE}) {
+            assertThrows(IllegalStateException.class, () -> TransferIdGenerator.nodeId(nodeId, 1));
+        }
+        assertThrows(IllegalStateException.class, () -> TransferIdGenerator.nodeId(-1, 2));
+    }
+}
@@ -0,0 +1,124 @@
+package io.temporal.samples.moneytransfer.helper;
+
+import io.temporal.samples.moneytransfer.model.TransferStatus;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+
+public class TransferStatusCacheTest {
+
+    // the cache is shared by the whole JVM, so every test uses its own workflow IDs
+
+    /**
+     * Test concurrent lookups of a status that is still loading share one load
+     */
+    @Test
+    public void testConcurrentLookupsLoadOnce() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CompletableFuture<TransferStatusCache.Entry> loading = new CompletableFuture<>();
+        TransferStatusCache.Loader loader = workflowId -> {
+            loads.incrementAndGet();
+            return loading;
+        };
+
+        int threads = 16;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<CompletableFuture<TransferStatus>> statuses = new ArrayList<>();
+        try {
+            List<Future<CompletableFuture<TransferStatus>>> lookups = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                lookups.add(executor.submit(() -> {
+                    start.await();
+                    return TransferStatusCache.get("concurrent", loader);
+                }));
+            }
+            start.countDown();
+            for (Future<CompletableFuture<TransferStatus>> lookup : lookups) {
+                statuses.add(lookup.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(1, loads.get());
+        for (CompletableFuture<TransferStatus> status : statuses) {
+            assertFalse(status.isDone());
+        }
+        TransferStatus status = status("running");
+        loading.complete(new TransferStatusCache.Entry(status, false));
+        for (CompletableFuture<TransferStatus> future : statuses) {
+            assertEquals(status, future.get(1, TimeUnit.SECONDS));
+        }
+    }
+
+    /**
+     * Test a running transfer's status is fetched again after the short TTL, and a closed one's is kept
+     */
+    @Test
+    public void testClosedTransfersOutliveRunningOnes() throws Exception {
+        AtomicInteger runningLoads = new AtomicInteger();
+        AtomicInteger closedLoads = new AtomicInteger();
+        TransferStatusCache.Loader running = workflowId -> {
+            runningLoads.incrementAndGet();
+            return CompletableFuture.completedFuture(new TransferStatusCache.Entry(status("running"), false));
+        };
+        TransferStatusCache.Loader closed = workflowId -> {
+            closedLoads.incrementAndGet();
+            return CompletableFuture.completedFuture(new TransferStatusCache.Entry(status("finished"), true));
+        };
+
+        TransferStatusCache.get("ttl-running", running).get();
+        TransferStatusCache.get("ttl-closed", closed).get();
+        TransferStatusCache.get("ttl-running", running).get();
+        TransferStatusCache.get("ttl-closed", closed).get();
+        assertEquals(1, runningLoads.get());
+        assertEquals(1, closedLoads.get());
+
+        Thread.sleep(ServerInfo.getStatusCacheTtlMillis() + 200);
+
+        TransferStatusCache.get("ttl-running", running).get();
+        TransferStatusCache.get("ttl-closed", closed).get();
+        assertEquals(2, runningLoads.get());
+        assertEquals(1, closedLoads.get());
+    }
+
+    /**
+     * Test a failed load is not cached, the next lookup loads again
+     */
+    @Test
+    public void testFailedLoadIsRetried() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        TransferStatusCache.Loader loader = workflowId -> {
+            if (loads.incrementAndGet() == 1) {
+                return CompletableFuture.failedFuture(new IllegalStateException("query failed"));
+            }
+            return CompletableFuture.completedFuture(new TransferStatusCache.Entry(status("running"), false));
+        };
+
+        ExecutionException e = assertThrows(
+                ExecutionException.class,
+                () -> TransferStatusCache.get("retry", loader).get()
+        );
+        assertEquals("query failed", e.getCause().getMessage());
+        assertEquals(status("running"), TransferStatusCache.get("retry", loader).get());
+        assertEquals(2, loads.get());
+    }
+
+    private static TransferStatus status(String transferState) {
+        return new TransferStatus(50, transferState, "RUNNING", null, 0);
+    }
+}
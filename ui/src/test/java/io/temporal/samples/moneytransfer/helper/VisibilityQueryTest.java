@@ -0,0 +1,62 @@
+package io.temporal.samples.moneytransfer.helper;
+
+import org.junit.Test;
+
+import java.time.Instant;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+
+public class VisibilityQueryTest {
+
+    /**
+     * Test clauses are joined with AND and values are quoted
+     */
+    @Test
+    public void testClausesJoinedWithAnd() {
+        String query = new VisibilityQuery()
+                .startsWith("WorkflowType", "AccountTransferWorkflow")
+                .equal("Step", "Withdraw")
+                .between("StartTime", Instant.parse("2024-06-01T12:00:00Z"), Instant.parse("2024-06-01T13:00:00Z"))
+                .build();
+
+        assertEquals(
+                "WorkflowType STARTS_WITH 'AccountTransferWorkflow' AND Step = 'Withdraw'"
+                        + " AND StartTime BETWEEN '2024-06-01T12:00:00.000000000Z'"
+                        + " AND '2024-06-01T13:00:00.000000000Z'",
+                query
+        );
+    }
+
+    /**
+     * Test values containing a quote are rejected rather than pasted into the query
+     */
+    @Test
+    public void testQuoteRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new VisibilityQuery().equal("Step", "x' OR 'a' = 'a"));
+        assertThrows(IllegalArgumentException.class, () -> new VisibilityQuery().startsWith("WorkflowType", "'"));
+    }
+
+    /**
+     * Test anyOf adds one parenthesized clause of OR-ed alternatives, with AND only when a clause came before it
+     */
+    @Test
+    public void testAnyOfParenthesized() {
+        VisibilityQuery running = new VisibilityQuery().equal("ExecutionStatus", "Running");
+        VisibilityQuery failed = new VisibilityQuery().equal("ExecutionStatus", "Failed");
+
+        assertEquals(
+                "(ExecutionStatus = 'Running' OR ExecutionStatus = 'Failed')",
+                new VisibilityQuery().anyOf(running, failed).build()
+        );
+        assertEquals(
+                "WorkflowType = 'AccountTransferWorkflow'"
+                        + " AND (ExecutionStatus = 'Running' OR ExecutionStatus = 'Failed') AND Step = 'Deposit'",
+                new VisibilityQuery()
+                        .equal("WorkflowType", "AccountTransferWorkflow")
+                        .anyOf(running, failed)
+                        .equal("Step", "Deposit")
+                        .build()
+        );
+    }
+}
@@ -0,0 +1,48 @@
+package io.temporal.samples.moneytransfer.helper;
+
+import com.google.protobuf.Timestamp;
+import org.junit.Test;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+
+import static org.junit.Assert.assertEquals;
+
+public class VisibilityTimeTest {
+
+    /**
+     * Test instants are formatted in UTC with all nine fraction digits, whatever their precision
+     */
+    @Test
+    public void testNanosecondRfc3339() {
+        assertEquals(
+                "2024-06-01T12:00:00.123456789Z",
+                VisibilityTime.format(Instant.parse("2024-06-01T12:00:00.123456789Z"))
+        );
+        assertEquals("2024-06-01T12:00:00.120000000Z", VisibilityTime.format(Instant.parse("2024-06-01T12:00:00.12Z")));
+        assertEquals("2024-06-01T12:00:00.000000000Z", VisibilityTime.format(Instant.parse("2024-06-01T12:00:00Z")));
+        assertEquals(
+                "2024-06-01T10:00:00.000000000Z",
+                VisibilityTime.format(OffsetDateTime.parse("2024-06-01T12:00:00+02:00").toInstant())
+        );
+    }
+
+    /**
+     * Test formatTo appends to what the buffer already holds
+     */
+    @Test
+    public void testFormatToAppends() {
+        StringBuilder out = new StringBuilder("StartTime >= '");
+        VisibilityTime.formatTo(Instant.ofEpochSecond(0, 1), out);
+        assertEquals("StartTime >= '1970-01-01T00:00:00.000000001Z", out.toString());
+    }
+
+    /**
+     * Test a protobuf timestamp keeps its nanoseconds
+     */
+    @Test
+    public void testToInstant() {
+        Timestamp timestamp = Timestamp.newBuilder().setSeconds(1717243200).setNanos(123456789).build();
+        assertEquals(Instant.parse("2024-06-01T12:00:00.123456789Z"), VisibilityTime.toInstant(timestamp));
+    }
+}
@@ -0,0 +1,45 @@
+package io.temporal.samples.moneytransfer.web;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.util.JsonFormat;
+import io.temporal.api.common.v1.Payload;
+import io.temporal.api.common.v1.Payloads;
+import io.temporal.common.converter.EncodingKeys;
+import io.temporal.payload.codec.PayloadCodec;
+import io.temporal.samples.moneytransfer.dataconverter.CryptCodec;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertThrows;
+
+public class CodecEndpointTest {
+
+    /**
+     * Test a Payloads message in protobuf JSON survives encode then decode
+     */
+    @Test
+    public void testJsonRoundTrip() throws Exception {
+        Payloads payloads = Payloads.newBuilder()
+                .addPayloads(Payload.newBuilder()
+                        .putMetadata(EncodingKeys.METADATA_ENCODING_KEY, ByteString.copyFromUtf8("json/plain"))
+                        .setData(ByteString.copyFromUtf8("{\"amount\":10}")))
+                .build();
+        String plain = JsonFormat.printer().omittingInsignificantWhitespace().print(payloads);
+        CryptCodec codec = new CryptCodec();
+
+        String encoded = CodecEndpoint.apply(plain, codec, PayloadCodec::encode);
+        assertNotEquals(plain, encoded);
+        assertEquals(plain, CodecEndpoint.apply(encoded, codec, PayloadCodec::decode));
+    }
+
+    /**
+     * Test a body that isn't a Payloads message is rejected
+     */
+    @Test
+    public void testMalformedBody() {
+        assertThrows(InvalidProtocolBufferException.class,
+                () -> CodecEndpoint.apply("{\"payloads\": 42}", new CryptCodec(), PayloadCodec::decode));
+    }
+}
@@ -0,0 +1,112 @@
+package io.temporal.samples.moneytransfer.web;
+
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Concurrent request capacity of the web server: fires {@code --concurrency} requests at once at {@code --path}
+ * (default {@code /simulateDelay?s=5}, which answers after a delay without calling Temporal) and reports how many the
+ * server held open together. With blocking handlers Jetty's 250 threads cap that number and the run takes several
+ * delays; with {@code ctx.future(...)} every request is in flight for the whole delay and the run takes about one.
+ * <p>
+ * {@code --server} starts the web server in this JVM, and then also reports its peak thread count. Without it the
+ * driver targets a server already running at {@code --url} (default {@code http://localhost:7070}).
+ *
+ * <pre>
+ * ./gradlew loadTest -Parg="--server --concurrency=2000"
+ * ./gradlew loadTest -Parg="--concurrency=500 --path=/runQuery?workflowId=TRANSFER-0A8QMM6MYY000"
+ * </pre>
+ */
+public class WebServerLoadDriver {
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        int concurrency = Integer.parseInt(options.getOrDefault("concurrency", "1000"));
+        String url = options.getOrDefault("url", "http://localhost:7070");
+        String path = options.getOrDefault("path", "/simulateDelay?s=5");
+        boolean server = options.containsKey("server");
+
+        if (server) {
+            WebServer.main(new String[0]);
+        }
+
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url + path)).GET().build();
+
+        System.out.printf("%d concurrent requests to %s%s%n", concurrency, url, path);
+        AtomicInteger failed = new AtomicInteger();
+        List<Long> latencies = Collections.synchronizedList(new ArrayList<>(concurrency));
+        List<CompletableFuture<?>> requests = new ArrayList<>(concurrency);
+        long start = System.nanoTime();
+        for (int i = 0; i < concurrency; i++) {
+            long sent = System.nanoTime();
+            requests.add(client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, failure) -> {
+                        if (failure != null || response.statusCode() >= 400) {
+                            failed.incrementAndGet();
+                        } else {
+                            latencies.add(System.nanoTime() - sent);
+                        }
+                    }));
+        }
+        CompletableFuture.allOf(requests.toArray(new CompletableFuture[0])).exceptionally(failure -> null).join();
+        long elapsedNanos = System.nanoTime() - start;
+
+        List<Long> sorted = new ArrayList<>(latencies);
+        Collections.sort(sorted);
+        long totalNanos = sorted.stream().mapToLong(Long::longValue).sum();
+        System.out.printf("%nSucceeded:         %d%n", sorted.size());
+        System.out.println("Failed:            " + failed.get());
+        System.out.printf("Elapsed:           %.2fs%n", elapsedNanos / 1e9);
+        if (!sorted.isEmpty()) {
+            System.out.printf("Latency p50:       %d ms%n", millis(sorted, 0.50));
+            System.out.printf("Latency p99:       %d ms%n", millis(sorted, 0.99));
+            System.out.printf("Latency max:       %d ms%n", millis(sorted, 1.0));
+        }
+        // Little's law: the average number of requests the server was holding open over the run
+        System.out.printf("Average in flight: %.0f%n", (double) totalNanos / elapsedNanos);
+        if (server) {
+            System.out.println("Peak threads:      " + ManagementFactory.getThreadMXBean().getPeakThreadCount());
+        }
+        System.exit(0);
+    }
+
+    private static long millis(List<Long> sorted, double quantile) {
+        int index = (int) Math.min(sorted.size() - 1, Math.ceil(quantile * sorted.size()) - 1);
+        return sorted.get(Math.max(index, 0)) / 1_000_000;
+    }
+
+    // --key=value, or --key for a flag
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (arg.isEmpty()) {
+                continue;
+            }
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Expected --key=value, got " + arg);
+            }
+            int equals = arg.indexOf('=');
+            if (equals < 0) {
+                options.put(arg.substring(2), "true");
+            } else {
+                options.put(arg.substring(2, equals), arg.substring(equals + 1));
+            }
+        }
+        return options;
+    }
+}